@@ -1,29 +1,38 @@
 package com.zitemaker;
 
 import com.zitemaker.commands.ArenaRegenCommand;
-import com.zitemaker.helpers.EntitySerializer;
+import com.zitemaker.helpers.ArenaDiff;
+import com.zitemaker.helpers.ArenaEntityQuery;
+import com.zitemaker.helpers.BlockStateRegistry;
+import com.zitemaker.helpers.BlockVolume;
+import com.zitemaker.helpers.EntityRestorePlan;
 import com.zitemaker.helpers.RegionData;
+import com.zitemaker.helpers.TileRestorePlan;
+import com.zitemaker.listeners.ArenaChangeListener;
 import com.zitemaker.listeners.PlayerMoveListener;
-import com.zitemaker.nms.BlockUpdate;
+import com.zitemaker.nms.BlockUpdateBuffer;
+import com.zitemaker.nms.NMSHandler;
 import com.zitemaker.nms.NMSHandlerFactoryProvider;
+import com.zitemaker.nms.ResolvedPalette;
+import com.zitemaker.nms.SectionChangeSet;
+import com.zitemaker.nms.SectionUpdate;
 import com.zitemaker.placeholders.ArenaRegenExpansion;
+import com.zitemaker.regen.ModifiedRegenSource;
+import com.zitemaker.regen.RegenJob;
+import com.zitemaker.regen.RegenScheduler;
+import com.zitemaker.regen.RegenSource;
+import com.zitemaker.regen.StreamingRegenSource;
+import com.zitemaker.regen.TickBudget;
+import com.zitemaker.regen.VolumeRegenSource;
 import com.zitemaker.utils.*;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import org.bukkit.*;
-import org.bukkit.block.Banner;
 import org.bukkit.block.Block;
-import org.bukkit.block.BlockState;
-import org.bukkit.block.Sign;
-import org.bukkit.block.banner.Pattern;
-import org.bukkit.block.banner.PatternType;
-import org.bukkit.block.data.BlockData;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
-import org.bukkit.persistence.PersistentDataContainer;
-import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.Nullable;
@@ -33,7 +42,12 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
 public class ArenaRegen extends JavaPlugin {
@@ -41,6 +55,8 @@ public class ArenaRegen extends JavaPlugin {
     private File messagesFile;
     private FileConfiguration messagesConfig;
 
+    private static final int STARVED_TICK_LIMIT = 20;
+
     private final Map<String, RegionData> registeredRegions = new ConcurrentHashMap<>();
     private final Map<String, String> pendingDeletions = new ConcurrentHashMap<>();
     private final Map<String, String> pendingRegenerations = new ConcurrentHashMap<>();
@@ -52,13 +68,23 @@ public class ArenaRegen extends JavaPlugin {
     public String prefix;
     public String regenType;
     public String regenSpeed;
-    public int customRegenSpeed;
-    public int analyzeSpeed;
+    public double customTickBudget;
+    public double targetMspt;
+    public int maxConcurrentRegens;
+    public int chunkResendThreshold;
+    public double entityRestoreBudget;
     public int arenaSize;
     public int maxArenas = 8;
+    public boolean lazyLoadArenas;
+    public boolean prewarmArenas;
+    public long journalCompactSize;
+    public long journalFlushInterval;
+    private ForkJoinPool workerPool;
+    private RegenScheduler regenScheduler;
     public boolean confirmationPrompt;
     public boolean trackEntities;
     public boolean regenOnlyModified;
+    public boolean streamingRegen;
     public boolean cancelRegen;
     public boolean killPlayers;
     public boolean executeCommands;
@@ -71,6 +97,7 @@ public class ArenaRegen extends JavaPlugin {
     private boolean lockDuringRegeneration;
 
     private int saveTaskId = -1;
+    private int journalFlushTaskId = -1;
     private final Map<String, Integer> scheduledTasks = new ConcurrentHashMap<>();
     private final Map<String, Long> scheduledIntervals = new ConcurrentHashMap<>();
     private final Map<String, Long> taskStartTimes = new ConcurrentHashMap<>();
@@ -78,6 +105,7 @@ public class ArenaRegen extends JavaPlugin {
     private FileConfiguration schedulesConfig;
     private ArenaRegenExpansion placeholderExpansion;
     private PlayerMoveListener playerMoveListener;
+    private ArenaChangeListener arenaChangeListener;
     private BukkitAudiences adventure;
     private boolean isPaper;
 
@@ -149,6 +177,8 @@ public class ArenaRegen extends JavaPlugin {
         }
 
         reloadPluginConfig();
+        workerPool = createWorkerPool(getConfig().getInt("general.worker-threads", 0));
+        regenScheduler = new RegenScheduler(this);
         loadMessagesFile();
         saveMessagesFile();
         loadRegionsAsync().thenRun(() -> {
@@ -159,6 +189,8 @@ public class ArenaRegen extends JavaPlugin {
             Bukkit.getPluginManager().registerEvents(commandExecutor, this);
             playerMoveListener = new PlayerMoveListener(this);
             Bukkit.getPluginManager().registerEvents(playerMoveListener, this);
+            arenaChangeListener = new ArenaChangeListener(this);
+            Bukkit.getPluginManager().registerEvents(arenaChangeListener, this);
 
             File arenasDir = new File(getDataFolder(), "arenas");
             if (!arenasDir.exists()) {
@@ -171,8 +203,12 @@ public class ArenaRegen extends JavaPlugin {
                         + "Please check file permissions to ensure the server process has read/write access.");
             }
 
-            saveTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(this, this::saveRegionsAsync, 0L, 4000L)
-                    .getTaskId();
+            saveTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> {
+                saveRegionsAsync();
+                Bukkit.getScheduler().runTask(this, this::evictUnusedBlockStates);
+            }, 0L, 4000L).getTaskId();
+            journalFlushTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(this, this::flushJournals,
+                    journalFlushInterval, journalFlushInterval).getTaskId();
             rescheduleTasks();
             logger.info("Plugin fully enabled.");
         }).exceptionally(e -> {
@@ -199,19 +235,75 @@ public class ArenaRegen extends JavaPlugin {
             Bukkit.getScheduler().cancelTask(saveTaskId);
             saveTaskId = -1;
         }
+        if (journalFlushTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(journalFlushTaskId);
+            journalFlushTaskId = -1;
+        }
 
         for (Integer taskId : scheduledTasks.values()) {
             Bukkit.getScheduler().cancelTask(taskId);
         }
         scheduledTasks.clear();
         saveSchedules();
+        if (regenScheduler != null) {
+            regenScheduler.shutdown();
+        }
         regeneratingArenas.clear();
+        flushJournals();
+
+        BlockStateRegistry.clear();
 
-        RegionData.clearBlockDataCache();
+        if (workerPool != null) {
+            workerPool.shutdown();
+            workerPool = null;
+        }
 
         logger.info(ARChatColor.RED + "ArenaRegen v" + getDescription().getVersion() + " has been disabled.");
     }
 
+    private ForkJoinPool createWorkerPool(int threads) {
+        int parallelism = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadId = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ArenaRegen-Worker-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    private void flushJournals() {
+        List<RegionData> regions;
+        synchronized (registeredRegions) {
+            regions = new ArrayList<>(registeredRegions.values());
+        }
+        for (RegionData region : regions) {
+            region.flushJournal();
+        }
+    }
+
+    private void evictUnusedBlockStates() {
+        int evicted;
+        synchronized (regeneratingArenas) {
+            if (!regeneratingArenas.isEmpty()) {
+                return;
+            }
+            evicted = BlockStateRegistry.evictUnused();
+        }
+        if (evicted > 0) {
+            logger.info("Evicted " + evicted + " unused block states (" + BlockStateRegistry.size() + " cached).");
+        }
+    }
+
+    public RegenScheduler getRegenScheduler() {
+        return regenScheduler;
+    }
+
+    public ForkJoinPool getWorkerPool() {
+        ForkJoinPool pool = workerPool;
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
     private CompletableFuture<Void> loadRegionsAsync() {
         File arenasDir = new File(getDataFolder(), "arenas");
         if (!arenasDir.exists()) {
@@ -241,7 +333,8 @@ public class ArenaRegen extends JavaPlugin {
             RegionData regionData = new RegionData(this);
             regionData.setDatcFile(file);
 
-            CompletableFuture<Void> loadFuture = regionData.loadFromDatc(file)
+            CompletableFuture<Void> loadFuture = (lazyLoadArenas ? regionData.loadHeaderFromDatc(file)
+                    : regionData.loadFromDatc(file))
                     .thenRun(() -> {
                         registeredRegions.put(regionName, regionData);
                         loadedRegions.incrementAndGet();
@@ -267,6 +360,9 @@ public class ArenaRegen extends JavaPlugin {
                     logger.info("Successfully loaded " + totalLoaded + " out of " + files.length + " arenas.");
 
                     unlockAllArenas();
+                    if (lazyLoadArenas && prewarmArenas) {
+                        prewarmArenas();
+                    }
 
                     if (totalLoaded < files.length) {
                         logger.info(ARChatColor.RED + "Errors occurred while loading the following arenas:");
@@ -281,6 +377,24 @@ public class ArenaRegen extends JavaPlugin {
                 });
     }
 
+    private void prewarmArenas() {
+        List<Map.Entry<String, RegionData>> regions = new ArrayList<>(registeredRegions.entrySet());
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (Map.Entry<String, RegionData> entry : regions) {
+            String arenaName = entry.getKey();
+            RegionData regionData = entry.getValue();
+            chain = chain.thenCompose(v -> regionData.ensureBlockDataLoaded()
+                    .exceptionally(e -> {
+                        logger.info(ARChatColor.YELLOW + "Failed to prewarm arena '" + arenaName + "': "
+                                + e.getMessage());
+                        return null;
+                    }));
+        }
+        long startTime = System.currentTimeMillis();
+        chain.thenRun(() -> logger.info("Prewarmed block data for " + regions.size() + " arenas in "
+                + (System.currentTimeMillis() - startTime) + "ms."));
+    }
+
     private void unlockAllArenas() {
         int unlockedCount = 0;
         for (Map.Entry<String, RegionData> entry : registeredRegions.entrySet()) {
@@ -340,11 +454,19 @@ public class ArenaRegen extends JavaPlugin {
         List<CompletableFuture<Void>> saveFutures = new ArrayList<>();
         for (String regionName : regionsToProcess) {
             RegionData region = regionsToSave.get(regionName);
-            if (region == null || isRegionEmpty(region)) {
+            if (region == null) {
                 continue;
             }
             File datcFile = new File(arenasDir, regionName + ".datc");
-            CompletableFuture<Void> saveFuture = region.saveToDatc(datcFile)
+            CompletableFuture<Void> writeFuture;
+            if (!region.isBlockDataLoaded() && datcFile.exists()) {
+                writeFuture = region.ensureBlockDataLoaded().thenCompose(v -> region.saveToDatc(datcFile));
+            } else if (isRegionEmpty(region)) {
+                continue;
+            } else {
+                writeFuture = region.saveToDatc(datcFile);
+            }
+            CompletableFuture<Void> saveFuture = writeFuture
                     .thenRun(() -> {
                         savedRegions.incrementAndGet();
                         logger.info("Saved region '" + regionName + "' to " + datcFile.getPath());
@@ -389,12 +511,20 @@ public class ArenaRegen extends JavaPlugin {
                 getConfig().getString("prefix", "&e[&2ArenaRegen&e]"));
         this.regenType = getConfig().getString("regen.regen-speed-type", "PRESET").toUpperCase();
         this.regenSpeed = getConfig().getString("regen.regen-speed", "FAST").toUpperCase();
-        this.customRegenSpeed = getConfig().getInt("regen.custom-regen-speed", 10000);
-        this.analyzeSpeed = getConfig().getInt("general.analyze-speed", 40000);
+        this.customTickBudget = getConfig().getDouble("regen.custom-tick-budget-ms", 10.0);
+        this.targetMspt = getConfig().getDouble("regen.target-mspt", 45.0);
+        this.maxConcurrentRegens = getConfig().getInt("regen.max-concurrent-regens", 2);
+        this.chunkResendThreshold = getConfig().getInt("regen.chunk-resend-threshold", 2048);
+        this.entityRestoreBudget = getConfig().getDouble("regen.entity-restore-budget-ms", 5.0);
         this.arenaSize = getConfig().getInt("general.arena-size-limit", 40000);
+        this.lazyLoadArenas = getConfig().getBoolean("general.lazy-load-arenas", true);
+        this.prewarmArenas = getConfig().getBoolean("general.prewarm-arenas", false);
+        this.journalCompactSize = getConfig().getLong("general.journal-compact-size-kb", 256) * 1024;
+        this.journalFlushInterval = Math.max(1L, getConfig().getLong("general.journal-flush-interval-ticks", 20));
         this.confirmationPrompt = getConfig().getBoolean("regen.confirmation-prompt", false);
         this.trackEntities = getConfig().getBoolean("regen.track-entities", true);
         this.regenOnlyModified = getConfig().getBoolean("regen.regen-only-modified", false);
+        this.streamingRegen = getConfig().getBoolean("regen.streaming-regen", true);
         this.cancelRegen = getConfig().getBoolean("regen.players-inside-arena.cancel-regen", false);
         this.killPlayers = getConfig().getBoolean("regen.players-inside-arena.kill", false);
         this.executeCommands = getConfig().getBoolean("regen.players-inside-arena.execute-commands", true);
@@ -424,6 +554,15 @@ public class ArenaRegen extends JavaPlugin {
         return playerMoveListener;
     }
 
+    public void refreshRegionIndexes() {
+        if (playerMoveListener != null) {
+            playerMoveListener.updateRegionBounds();
+        }
+        if (arenaChangeListener != null) {
+            arenaChangeListener.updateRegionIndex();
+        }
+    }
+
     public BukkitAudiences adventure() {
         if (this.adventure == null) {
             throw new IllegalStateException("Tried to access Adventure when the plugin was disabled!");
@@ -640,7 +779,7 @@ public class ArenaRegen extends JavaPlugin {
             return;
         }
 
-        if (!regionData.isBlockDataLoaded()) {
+        if (!regionData.isBlockDataLoaded() && !(streamingRegen && regionData.canStreamBlockData())) {
             if (sender != null) {
                 sender.sendMessage(
                         prefix + ChatColor.YELLOW + " Arena region data not loaded yet, loading... Please wait.");
@@ -738,51 +877,43 @@ public class ArenaRegen extends JavaPlugin {
 
     private void proceedWithRegeneration(String arenaName, CommandSender sender, RegionData regionData, World world) {
         try {
-            regionData.getSectionedBlockData().thenApplyAsync(sectionedBlockData -> {
-
-                if (sectionedBlockData.isEmpty()) {
-                    return null;
-                }
-
-                List<String> sectionNames = new ArrayList<>(sectionedBlockData.keySet());
-                Map<String, List<Map.Entry<Location, BlockData>>> sectionBlockLists = new HashMap<>();
-                for (String sectionName : sectionNames) {
-                    Map<Location, BlockData> section = sectionedBlockData.get(sectionName);
-                    sectionBlockLists.put(sectionName, new ArrayList<>(section.entrySet()));
-                }
+            final boolean trackedRegen = regenOnlyModified && regionData.isChangeTrackingComplete();
+            CompletableFuture<RegenSource> sourceFuture;
+            if (regenOnlyModified && !trackedRegen) {
+                sourceFuture = regionData.getBlockVolume().thenCompose(volume -> volume == null
+                        ? CompletableFuture.completedFuture(null)
+                        : new ArenaDiff(this, world, volume).start()
+                                .thenApply(changed -> new ModifiedRegenSource(volume, changed)));
+            } else if (regenOnlyModified) {
+                BitSet modified = regionData.getModifiedBlocks();
+                CompletableFuture<BlockVolume> volumeFuture = regionData.isBlockDataLoaded()
+                        ? regionData.getBlockVolume()
+                        : regionData.ensureStateDataLoaded()
+                                .thenCompose(v -> regionData.loadChunks(regionData.getChunkKeys(modified)));
+                sourceFuture = volumeFuture
+                        .thenApply(volume -> volume == null ? null : new ModifiedRegenSource(volume, modified));
+            } else if (!regionData.isBlockDataLoaded() && streamingRegen && regionData.canStreamBlockData()) {
+                sourceFuture = regionData.ensureStateDataLoaded()
+                        .thenApply(v -> new StreamingRegenSource(this, regionData));
+            } else {
+                sourceFuture = regionData.getRegenPlan()
+                        .thenApply(plan -> plan == null ? null : new VolumeRegenSource(plan));
+            }
 
-                return new Object[] { sectionNames, sectionBlockLists };
-            }).thenAccept(preparedData -> Bukkit.getScheduler().runTask(this, () -> {
+            sourceFuture.thenAccept(source -> Bukkit.getScheduler().runTask(this, () -> {
                 try {
-                    if (preparedData == null) {
+                    if (source == null) {
                         synchronized (regeneratingArenas) {
                             regeneratingArenas.remove(arenaName);
-                            logger.info("[ArenaRegen] Removed from regeneratingArenas (no sections): " + arenaName);
+                            logger.info("[ArenaRegen] Removed from regeneratingArenas (no block data): " + arenaName);
                         }
                         if (sender != null) {
                             sender.sendMessage(
-                                    prefix + ChatColor.RED + " No sections found for region '" + arenaName + "'.");
+                                    prefix + ChatColor.RED + " No block data found for region '" + arenaName + "'.");
                         }
                         return;
                     }
 
-                    @SuppressWarnings("unchecked")
-                    List<String> sectionNames = (List<String>) preparedData[0];
-                    @SuppressWarnings("unchecked")
-                    Map<String, List<Map.Entry<Location, BlockData>>> sectionBlockLists = (Map<String, List<Map.Entry<Location, BlockData>>>) preparedData[1];
-
-                    boolean wasLocked = regionData.isLocked();
-                    if (lockDuringRegeneration && !wasLocked) {
-                        regionData.setLocked(true);
-                        logger.info("[ArenaRegen] Locked arena '" + arenaName
-                                + "' for regeneration (lock-arenas config: " + lockDuringRegeneration + ")");
-                    } else if (!lockDuringRegeneration) {
-                        logger.info("[ArenaRegen] Arena locking is disabled in config for '" + arenaName
-                                + "' (lock-arenas: " + lockDuringRegeneration + ")");
-                    } else {
-                        logger.info("[ArenaRegen] Arena '" + arenaName + "' was already locked before regeneration");
-                    }
-
                     final int minX = regionData.getMinX();
                     final int minY = regionData.getMinY();
                     final int minZ = regionData.getMinZ();
@@ -790,18 +921,26 @@ public class ArenaRegen extends JavaPlugin {
                     final int maxY = regionData.getMaxY();
                     final int maxZ = regionData.getMaxZ();
 
-                    List<Player> playersInside = new ArrayList<>();
-                    for (Player p : world.getPlayers()) {
-                        Location loc = p.getLocation();
-                        if (loc.getX() >= minX && loc.getX() <= maxX &&
-                                loc.getY() >= minY && loc.getY() <= maxY &&
-                                loc.getZ() >= minZ && loc.getZ() <= maxZ) {
-                            playersInside.add(p);
-                        }
-                    }
-
-                    if (!playersInside.isEmpty()) {
-                        if (cancelRegen) {
+                    AtomicInteger totalBlocksReset = new AtomicInteger(0);
+                    AtomicLong startTime = new AtomicLong();
+                    SectionChangeSet changes = new SectionChangeSet(chunkResendThreshold);
+                    BlockUpdateBuffer updates = new BlockUpdateBuffer(SectionUpdate.SECTION_BLOCKS);
+                    ResolvedPalette palette = regionData.getResolvedPalette();
+                    TileRestorePlan tileRestorePlan = regionData.getTileRestorePlan();
+                    AtomicBoolean entitiesCleared = new AtomicBoolean(false);
+                    AtomicBoolean blocksComplete = new AtomicBoolean(false);
+                    AtomicInteger tileRestoreIndex = new AtomicInteger(0);
+                    AtomicReference<EntityRestorePlan> entityRestorePlan = new AtomicReference<>();
+                    AtomicInteger entityRestoreIndex = new AtomicInteger(0);
+                    long entityRestoreBudgetNanos = (long) (entityRestoreBudget * 1_000_000L);
+                    AtomicInteger starvedTicks = new AtomicInteger(0);
+
+                    RegenJob.Starter starter = job -> {
+                        ArenaEntityQuery entityQuery = new ArenaEntityQuery(world, minX, minY, minZ, maxX, maxY, maxZ);
+                        List<Player> playersInside = entityQuery.getPlayers();
+
+                        if (!playersInside.isEmpty() && cancelRegen) {
+                            source.close();
                             synchronized (regeneratingArenas) {
                                 regeneratingArenas.remove(arenaName);
                                 logger.info(
@@ -813,7 +952,19 @@ public class ArenaRegen extends JavaPlugin {
                                 sender.sendMessage(prefix + ChatColor.RED
                                         + " Regeneration canceled due to players inside the arena.");
                             }
-                            return;
+                            return false;
+                        }
+
+                        boolean wasLocked = regionData.isLocked();
+                        if (lockDuringRegeneration && !wasLocked) {
+                            regionData.setLocked(true);
+                            logger.info("[ArenaRegen] Locked arena '" + arenaName
+                                    + "' for regeneration (lock-arenas config: " + lockDuringRegeneration + ")");
+                        } else if (!lockDuringRegeneration) {
+                            logger.info("[ArenaRegen] Arena locking is disabled in config for '" + arenaName
+                                    + "' (lock-arenas: " + lockDuringRegeneration + ")");
+                        } else {
+                            logger.info("[ArenaRegen] Arena '" + arenaName + "' was already locked before regeneration");
                         }
 
                         for (Player players : playersInside) {
@@ -832,252 +983,94 @@ public class ArenaRegen extends JavaPlugin {
                                 }
                             }
                         }
-                    }
-
-                    if (trackEntities) {
-                        world.getEntities().stream()
-                                .filter(e -> {
-                                    Location loc = e.getLocation();
-                                    return loc.getX() >= minX && loc.getX() <= maxX &&
-                                            loc.getY() >= minY && loc.getY() <= maxY &&
-                                            loc.getZ() >= minZ && loc.getZ() <= maxZ;
-                                })
-                                .forEach(e -> {
-                                    if (!(e instanceof Player))
-                                        e.remove();
-                                });
-                    }
-
-                    if (sender != null) {
-                        sender.sendMessage(
-                                prefix + ChatColor.YELLOW + " Regenerating region '" + arenaName + "', please wait...");
-                    }
+                        if (!playersInside.isEmpty()) {
+                            job.addPriority(RegenJob.PRIORITY_OCCUPIED_BONUS);
+                        }
 
-                    int baseBlocksPerTick = regenType.equals("PRESET") ? switch (regenSpeed.toUpperCase()) {
-                        case "SLOW" -> 1000;
-                        case "NORMAL" -> 10000;
-                        case "FAST" -> 40000;
-                        case "VERYFAST" -> 100000;
-                        case "EXTREME" -> 4000000;
-                        default -> 10000;
-                    } : customRegenSpeed;
+                        if (trackEntities) {
+                            entitiesCleared.set(true);
+                            entityQuery.removeNonPlayerEntities();
+                        }
 
-                    AtomicInteger sectionIndex = new AtomicInteger(0);
-                    AtomicInteger totalBlocksReset = new AtomicInteger(0);
-                    long startTime = System.currentTimeMillis();
-                    Set<Long> chunkCoordsToRefresh = new HashSet<>();
-                    Map<String, Integer> sectionProgress = new HashMap<>();
+                        startTime.set(System.currentTimeMillis());
+                        source.start();
+                        return true;
+                    };
 
-                    Map<Long, Chunk> chunkCache = new HashMap<>();
+                    RegenJob.AbortHandler abortHandler = (job, cause) -> {
+                        source.close();
+                        logger.info("[ArenaRegen] Regeneration of '" + arenaName + "' aborted: " + cause.getMessage());
+                        if (sender != null) {
+                            sender.sendMessage(prefix + ChatColor.RED + " Regeneration failed: " + cause.getMessage());
+                        }
+                        if (entitiesCleared.get() && entityRestorePlan.get() == null) {
+                            try {
+                                EntityRestorePlan.compile(regionData.getEntityDataMap()).apply(0, Long.MAX_VALUE);
+                            } catch (Exception e) {
+                                logger.info("[ArenaRegen] Failed to restore entities for arena '" + arenaName + "': "
+                                        + e.getMessage());
+                            }
+                        }
+                        synchronized (regeneratingArenas) {
+                            regeneratingArenas.remove(arenaName);
+                            logger.info("[ArenaRegen] Removed from regeneratingArenas (aborted): " + arenaName);
+                        }
+                        if (job.isStarted() && lockDuringRegeneration && regionData.isLocked()) {
+                            regionData.setLocked(false);
+                            logger.info("[ArenaRegen] Unlocked arena '" + arenaName + "' after regeneration aborted");
+                        }
+                    };
 
-                    final boolean usingPaper = isPaper;
+                    int priority = sender != null ? RegenJob.PRIORITY_MANUAL : RegenJob.PRIORITY_SCHEDULED;
 
-                    Bukkit.getScheduler().runTaskTimer(this, task -> {
+                    boolean started = regenScheduler.submit(new RegenJob(arenaName, priority, starter, (job, deadline) -> {
+                        TickBudget tickBudget = regenScheduler.getTickBudget();
 
-                        int blocksPerTick = baseBlocksPerTick;
-                        if (usingPaper) {
-                            double currentTps = getServerTPS();
-                            if (currentTps > 0) {
-                                if (currentTps < 15.0) {
-                                    blocksPerTick = baseBlocksPerTick / 4;
-                                } else if (currentTps < 18.0) {
-                                    blocksPerTick = baseBlocksPerTick / 2;
-                                }
-                            }
+                        Throwable failure = source.getFailure();
+                        if (failure != null) {
+                            logger.info("[ArenaRegen] Failed to read block data for arena '" + arenaName + "': "
+                                    + failure.getMessage());
+                            job.abort(failure);
+                            return;
                         }
 
-                        int currentSection = sectionIndex.get();
-                        if (currentSection >= sectionNames.size()) {
-                            if (trackEntities) {
-                                Map<Location, Map<String, Object>> entityDataMap = regionData.getEntityDataMap();
-                                for (Map.Entry<Location, Map<String, Object>> entry : entityDataMap.entrySet()) {
-                                    Location loc = entry.getKey();
-                                    Map<String, Object> serializedEntity = entry.getValue();
-                                    try {
-                                        EntitySerializer.deserializeEntity(serializedEntity, loc);
-                                    } catch (Exception e) {
-                                        getLogger()
-                                                .warning("Failed to restore entity at " + loc + ": " + e.getMessage());
-                                    }
+                        if (source.isFinished()) {
+                            if (!blocksComplete.getAndSet(true)) {
+                                source.close();
+                                if (trackedRegen && source instanceof ModifiedRegenSource modifiedSource) {
+                                    regionData.clearModifiedBlocks(modifiedSource.getPositions());
+                                } else if (regionData.getModifiedBlockCount() > 0) {
+                                    regionData.clearModifiedBlocks();
+                                }
+                                regionData.setChangeTrackingComplete(true);
+                                if (trackEntities) {
+                                    entityRestorePlan.set(EntityRestorePlan.compile(regionData.getEntityDataMap()));
                                 }
                             }
 
-                            Map<Location, Map<String, Object>> bannerStates = regionData.getBannerStates();
-                            for (Map.Entry<Location, Map<String, Object>> entry : bannerStates.entrySet()) {
-                                Location loc = entry.getKey();
-                                Map<String, Object> bannerData = entry.getValue();
-
-                                try {
-                                    BlockState state = world.getBlockAt(loc).getState();
-                                    if (state instanceof Banner banner) {
-                                        String baseColorStr = (String) bannerData.get("baseColor");
-                                        DyeColor baseColor = baseColorStr.equals("NONE") ? null
-                                                : DyeColor.valueOf(baseColorStr);
-                                        banner.setBaseColor(Objects.requireNonNull(baseColor));
-
-                                        List<Map<String, String>> patternDataList = (List<Map<String, String>>) bannerData
-                                                .get("patterns");
-                                        if (patternDataList != null && !patternDataList.isEmpty()) {
-                                            List<Pattern> patterns = new ArrayList<>();
-                                            for (Map<String, String> patternData : patternDataList) {
-                                                DyeColor color = DyeColor.valueOf(patternData.get("color"));
-                                                String typeStr = patternData.get("type");
-                                                NamespacedKey key = new NamespacedKey("minecraft", typeStr);
-                                                PatternType patternType = Bukkit.getRegistry(PatternType.class)
-                                                        .get(key);
-                                                if (patternType == null) {
-                                                    getLogger().warning("Invalid pattern type '" + typeStr
-                                                            + "' for banner at " + loc + ", defaulting to base.");
-                                                    patternType = PatternType.BASE;
-                                                }
-                                                patterns.add(new Pattern(color, patternType));
-                                            }
-                                            banner.setPatterns(patterns);
-                                        }
-
-                                        Map<String, Object> pdcData = (Map<String, Object>) bannerData
-                                                .get("persistentData");
-                                        if (pdcData != null && !pdcData.isEmpty()) {
-                                            PersistentDataContainer pdc = banner.getPersistentDataContainer();
-                                            for (Map.Entry<String, Object> pdcEntry : pdcData.entrySet()) {
-                                                NamespacedKey key = NamespacedKey.fromString(pdcEntry.getKey());
-                                                if (key == null) {
-                                                    getLogger().warning("Invalid NamespacedKey '" + pdcEntry.getKey()
-                                                            + "' for banner at " + loc + ", skipping PDC entry.");
-                                                    continue;
-                                                }
-                                                Object value = pdcEntry.getValue();
-                                                if (value instanceof String s) {
-                                                    pdc.set(key, PersistentDataType.STRING, s);
-                                                } else if (value instanceof Integer i) {
-                                                    pdc.set(key, PersistentDataType.INTEGER, i);
-                                                } else if (value instanceof Double d) {
-                                                    pdc.set(key, PersistentDataType.DOUBLE, d);
-                                                } else if (value instanceof Byte b) {
-                                                    pdc.set(key, PersistentDataType.BYTE, b);
-                                                } else if (value instanceof Long l) {
-                                                    pdc.set(key, PersistentDataType.LONG, l);
-                                                } else {
-                                                    getLogger().warning("Unsupported PDC value type for key " + key
-                                                            + " at " + loc + ", skipping.");
-                                                }
-                                            }
-                                        }
-
-                                        banner.update();
-                                    } else {
-                                        getLogger().warning(
-                                                "Block at " + loc + " is not a banner, cannot restore banner state.");
-                                    }
-                                } catch (Exception e) {
-                                    getLogger().warning("Failed to restore banner at " + loc + ": " + e.getMessage());
-                                }
+                            EntityRestorePlan entities = entityRestorePlan.get();
+                            if (entities != null && entityRestoreIndex.get() < entities.size()) {
+                                long entityDeadline = Math.min(deadline, System.nanoTime() + entityRestoreBudgetNanos);
+                                entityRestoreIndex.set(entities.apply(entityRestoreIndex.get(), entityDeadline));
+                                return;
                             }
 
-                            Map<Location, Map<String, Object>> signStates = regionData.getSignStates();
-                            for (Map.Entry<Location, Map<String, Object>> entry : signStates.entrySet()) {
-                                Location loc = entry.getKey();
-                                Map<String, Object> signData = entry.getValue();
-
-                                try {
-                                    BlockState state = world.getBlockAt(loc).getState();
-                                    if (state instanceof Sign sign) {
-                                        List<String> lines = (List<String>) signData.get("lines");
-                                        if (lines != null) {
-                                            for (int i = 0; i < Math.min(lines.size(), 4); i++) {
-                                                sign.setLine(i, lines.get(i));
-                                            }
-                                        }
-
-                                        String colorStr = (String) signData.get("color");
-                                        DyeColor color = DyeColor.BLACK;
-                                        try {
-                                            color = DyeColor.valueOf(colorStr);
-                                        } catch (IllegalArgumentException e) {
-                                            getLogger().warning("Invalid color '" + colorStr + "' for sign at " + loc
-                                                    + ", defaulting to BLACK.");
-                                        }
-                                        sign.setColor(color);
-
-                                        boolean glowing = (boolean) signData.getOrDefault("glowing", false);
-                                        sign.setGlowingText(glowing);
-
-                                        Map<String, Object> pdcData = (Map<String, Object>) signData
-                                                .get("persistentData");
-                                        if (pdcData != null && !pdcData.isEmpty()) {
-                                            PersistentDataContainer pdc = sign.getPersistentDataContainer();
-                                            for (Map.Entry<String, Object> pdcEntry : pdcData.entrySet()) {
-                                                NamespacedKey key = NamespacedKey.fromString(pdcEntry.getKey());
-                                                if (key == null) {
-                                                    getLogger().warning("Invalid NamespacedKey '" + pdcEntry.getKey()
-                                                            + "' for sign at " + loc + ", skipping PDC entry.");
-                                                    continue;
-                                                }
-                                                Object value = pdcEntry.getValue();
-                                                if (value instanceof String s) {
-                                                    pdc.set(key, PersistentDataType.STRING, s);
-                                                } else if (value instanceof Integer i) {
-                                                    pdc.set(key, PersistentDataType.INTEGER, i);
-                                                } else if (value instanceof Double d) {
-                                                    pdc.set(key, PersistentDataType.DOUBLE, d);
-                                                } else if (value instanceof Byte b) {
-                                                    pdc.set(key, PersistentDataType.BYTE, b);
-                                                } else if (value instanceof Long l) {
-                                                    pdc.set(key, PersistentDataType.LONG, l);
-                                                } else {
-                                                    getLogger().warning("Unsupported PDC value type for key " + key
-                                                            + " at " + loc + ", skipping.");
-                                                }
-                                            }
-                                        }
-
-                                        sign.update();
-                                    } else {
-                                        getLogger().warning(
-                                                "Block at " + loc + " is not a sign, cannot restore sign state.");
-                                    }
-                                } catch (Exception e) {
-                                    getLogger().warning("Failed to restore sign at " + loc + ": " + e.getMessage());
-                                }
+                            int restored = tileRestorePlan.apply(world, tileRestoreIndex.get(), deadline);
+                            tileRestoreIndex.set(restored);
+                            if (restored < tileRestorePlan.size()) {
+                                return;
                             }
 
+                            NMSHandler handler = NMSHandlerFactoryProvider.getNMSHandler();
+                            handler.syncBlockChanges(world, changes);
+                            Collection<Long> chunkKeys = source.getChunkKeys() != null
+                                    ? source.getChunkKeys() : changes.getChangedChunks();
                             Bukkit.getScheduler().runTaskLater(this, () -> {
-
-                                Set<Chunk> chunksToRefresh = new HashSet<>();
-                                for (long packedCoord : chunkCoordsToRefresh) {
-                                    int chunkX = (int) (packedCoord >> 32);
-                                    int chunkZ = (int) packedCoord;
-                                    try {
-                                        Chunk chunk = world.getChunkAt(chunkX, chunkZ);
-                                        if (chunk.isLoaded()) {
-                                            chunksToRefresh.add(chunk);
-                                        }
-                                    } catch (Exception ignored) {
-                                    }
-                                }
-
-                                Set<Chunk> extendedChunks = new HashSet<>(chunksToRefresh);
-                                for (Chunk chunk : chunksToRefresh) {
-                                    for (int dx = -1; dx <= 1; dx++) {
-                                        for (int dz = -1; dz <= 1; dz++) {
-                                            if (dx == 0 && dz == 0)
-                                                continue;
-                                            try {
-                                                Chunk neighborChunk = world.getChunkAt(chunk.getX() + dx,
-                                                        chunk.getZ() + dz);
-                                                if (neighborChunk.isLoaded()) {
-                                                    extendedChunks.add(neighborChunk);
-                                                }
-                                            } catch (Exception e) {
-                                            }
-                                        }
-                                    }
-                                }
-                                NMSHandlerFactoryProvider.getNMSHandler().relightChunks(world,
-                                        new ArrayList<>(extendedChunks), new ArrayList<>());
+                                handler.relightChunks(world, chunkKeys);
+                                handler.resendChunks(world, changes.getResendChunks());
                             }, 40L);
 
-                            long timeTaken = System.currentTimeMillis() - startTime;
+                            long timeTaken = System.currentTimeMillis() - startTime.get();
                             if (sender != null) {
                                 sender.sendMessage(
                                         prefix + ChatColor.GREEN + " Regeneration of '" + arenaName + "' complete! " +
@@ -1088,7 +1081,7 @@ public class ArenaRegen extends JavaPlugin {
                                 regeneratingArenas.remove(arenaName);
                                 logger.info("[ArenaRegen] Removed from regeneratingArenas (completed): " + arenaName);
                             }
-                            task.cancel();
+                            job.finish();
                             if (regionData.isLocked()) {
                                 regionData.setLocked(false);
                                 logger.info(
@@ -1097,60 +1090,38 @@ public class ArenaRegen extends JavaPlugin {
                             return;
                         }
 
-                        String sectionName = sectionNames.get(currentSection);
-                        List<Map.Entry<Location, BlockData>> blockList = sectionBlockLists.get(sectionName);
-
-                        int blockIndex = sectionProgress.getOrDefault(sectionName, 0);
-                        List<BlockUpdate> updates = new ArrayList<>();
-
-                        while (blockIndex < blockList.size() && updates.size() < blocksPerTick) {
-                            Map.Entry<Location, BlockData> entry = blockList.get(blockIndex);
-                            Location loc = entry.getKey();
-                            loc.setWorld(world);
-                            BlockData originalData = entry.getValue();
-
-                            boolean shouldUpdate;
-                            if (regenOnlyModified) {
-                                Block block = world.getBlockAt(loc);
-                                BlockData currentData = block.getBlockData();
-                                shouldUpdate = !currentData.equals(originalData);
-                                if (shouldUpdate) {
-                                    updates.add(
-                                            new BlockUpdate(block.getX(), block.getY(), block.getZ(), originalData));
-
-                                    int chunkX = block.getX() >> 4;
-                                    int chunkZ = block.getZ() >> 4;
-                                    chunkCoordsToRefresh.add(((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL));
-                                    totalBlocksReset.incrementAndGet();
-                                }
-                            } else {
-                                updates.add(new BlockUpdate((int) loc.getX(), (int) loc.getY(), (int) loc.getZ(),
-                                        originalData));
-                                int chunkX = ((int) loc.getX()) >> 4;
-                                int chunkZ = ((int) loc.getZ()) >> 4;
-
-                                chunkCoordsToRefresh.add(((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL));
-                                totalBlocksReset.incrementAndGet();
+                        boolean progressed = false;
+                        while (System.nanoTime() < deadline && !source.isFinished()) {
+                            long batchStart = System.nanoTime();
+                            int maxSections = tickBudget.estimateSections(deadline - batchStart);
+                            if (maxSections == 0 && !progressed && starvedTicks.get() >= STARVED_TICK_LIMIT) {
+                                maxSections = 1;
                             }
-                            blockIndex++;
-                        }
-
-                        if (!updates.isEmpty()) {
-                            try {
-                                NMSHandlerFactoryProvider.getNMSHandler().setBlocks(world, updates);
-                            } catch (Exception e) {
-                                logger.info(ChatColor.RED + "Failed to set blocks in section " + sectionName + ": "
-                                        + e.getMessage());
+                            int sections = applyRegenSections(world, arenaName, source, maxSections, changes, palette);
+                            long sectionsEnd = System.nanoTime();
+                            tickBudget.recordSections(sections, sectionsEnd - batchStart);
+
+                            int blocks = applyRegenBlocks(world, arenaName, source,
+                                    tickBudget.estimateBlocks(deadline - sectionsEnd), changes, updates, palette);
+                            tickBudget.record(blocks, System.nanoTime() - sectionsEnd);
+
+                            int applied = sections * SectionUpdate.SECTION_BLOCKS + blocks;
+                            totalBlocksReset.addAndGet(applied);
+                            if (applied == 0) {
+                                break;
                             }
+                            progressed = true;
                         }
-
-                        if (blockIndex < blockList.size()) {
-                            sectionProgress.put(sectionName, blockIndex);
-                        } else {
-                            sectionProgress.remove(sectionName);
-                            sectionIndex.incrementAndGet();
+                        starvedTicks.set(progressed || source.isFinished() ? 0 : starvedTicks.get() + 1);
+                        if (changes.hasPending()) {
+                            NMSHandlerFactoryProvider.getNMSHandler().syncBlockChanges(world, changes);
                         }
-                    }, 0L, 1L);
+                    }, abortHandler));
+
+                    if (!started && sender != null) {
+                        sender.sendMessage(prefix + ChatColor.YELLOW + " Regeneration of '" + arenaName
+                                + "' is queued (" + regenScheduler.getQueueDepth() + " waiting).");
+                    }
                 } catch (Exception e) {
                     logger.info("[ArenaRegen] Exception during regeneration: " + e.getMessage());
                     if (sender != null) {
@@ -1182,6 +1153,61 @@ public class ArenaRegen extends JavaPlugin {
         }
     }
 
+    private int applyRegenSections(World world, String arenaName, RegenSource source, int maxSections,
+            SectionChangeSet changes, ResolvedPalette palette) {
+        if (maxSections <= 0) {
+            return 0;
+        }
+        List<SectionUpdate> sections = new ArrayList<>();
+        source.drainSectionsTo(sections, maxSections);
+
+        for (SectionUpdate section : sections) {
+            changes.addSection(section.getSectionX(), section.getSectionY(), section.getSectionZ());
+        }
+        if (!sections.isEmpty()) {
+            try {
+                NMSHandlerFactoryProvider.getNMSHandler().setSections(world, sections, palette);
+            } catch (Exception e) {
+                logger.info(ChatColor.RED + "Failed to replace sections in arena " + arenaName + ": " + e.getMessage());
+            }
+        }
+        return sections.size();
+    }
+
+    private int applyRegenBlocks(World world, String arenaName, RegenSource source, int maxBlocks,
+            SectionChangeSet changes, BlockUpdateBuffer updates, ResolvedPalette palette) {
+        if (maxBlocks <= 0) {
+            return 0;
+        }
+        updates.clear();
+        source.drainTo(updates, maxBlocks);
+
+        updates.sort();
+        changes.addBlocks(updates);
+        if (!updates.isEmpty()) {
+            try {
+                NMSHandlerFactoryProvider.getNMSHandler().setBlocks(world, updates, palette);
+            } catch (Exception e) {
+                logger.info(ChatColor.RED + "Failed to set blocks in arena " + arenaName + ": " + e.getMessage());
+            }
+        }
+        return updates.size();
+    }
+
+    public double getTickBudgetMillis() {
+        if (!regenType.equals("PRESET")) {
+            return customTickBudget;
+        }
+        return switch (regenSpeed.toUpperCase()) {
+            case "SLOW" -> 2;
+            case "NORMAL" -> 5;
+            case "FAST" -> 10;
+            case "VERYFAST" -> 20;
+            case "EXTREME" -> 40;
+            default -> 10;
+        };
+    }
+
     public Location getArenaSpawn(String arenaName) {
         RegionData regionData = getRegisteredRegions().get(arenaName);
         if (regionData == null)
@@ -1347,11 +1373,11 @@ public class ArenaRegen extends JavaPlugin {
     private boolean isRegionEmpty(RegionData region) {
         if (region == null)
             return true;
-        return region.sectionedBlockData.isEmpty()
+        return region.getBlockCount() == 0
                 && region.getEntityDataMap().isEmpty()
                 && region.getBannerStates().isEmpty()
                 && region.getSignStates().isEmpty()
-                && region.getModifiedBlocks().isEmpty();
+                && region.getModifiedBlockCount() == 0;
     }
 
     public Location parseTeleportLocation(Player player, ConfigurationSection locSection, RegionData regionData,
@@ -1463,19 +1489,4 @@ public class ArenaRegen extends JavaPlugin {
     private double applyOp(double result, double val, char op) {
         return (op == '-') ? result - val : result + val;
     }
-
-    private double getServerTPS() {
-        if (!isPaper) {
-            return -1;
-        }
-        try {
-
-            java.lang.reflect.Method getTpsMethod = Bukkit.class.getMethod("getTPS");
-            double[] tps = (double[]) getTpsMethod.invoke(null);
-            return tps[0];
-        } catch (Exception e) {
-
-            return -1;
-        }
-    }
 }
@@ -1,6 +1,8 @@
 package com.zitemaker.commands;
 
 import com.zitemaker.ArenaRegen;
+import com.zitemaker.helpers.ArenaCapture;
+import com.zitemaker.helpers.ArenaEntityQuery;
 import com.zitemaker.helpers.EntitySerializer;
 import com.zitemaker.helpers.RegionData;
 import net.kyori.adventure.text.Component;
@@ -33,7 +35,6 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class ArenaRegenCommand implements TabExecutor, Listener {
 
@@ -225,92 +226,48 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
                 regionData.setDatcFile(datcFile);
 
                 plugin.getRegisteredRegions().put(regionName, regionData);
-                long totalBlocks = (long) width * height * depth;
-                int blocksPerTick = Math.min(100000, Math.max(1000, plugin.analyzeSpeed / 20));
+                plugin.refreshRegionIndexes();
 
                 commandSender.sendMessage(pluginPrefix + ChatColor.YELLOW + " Analyzing and creating region '"
                         + regionName + "', please wait...");
                 List<Map.Entry<Location, Map<String, Object>>> entitiesToAdd = new ArrayList<>();
                 if (plugin.trackEntities) {
-                    for (Entity entity : world.getEntities()) {
-                        Location loc = entity.getLocation();
-                        if (loc.getX() >= minX && loc.getX() <= maxX &&
-                                loc.getY() >= minY && loc.getY() <= maxY &&
-                                loc.getZ() >= minZ && loc.getZ() <= maxZ) {
-                            Map<String, Object> serialized = EntitySerializer.serializeEntity(entity);
-                            if (serialized != null) {
-                                entitiesToAdd.add(new AbstractMap.SimpleEntry<>(loc, serialized));
-                            }
+                    for (Entity entity : new ArenaEntityQuery(world, minX, minY, minZ, maxX, maxY, maxZ).getEntities()) {
+                        Map<String, Object> serialized = EntitySerializer.serializeEntity(entity);
+                        if (serialized != null) {
+                            entitiesToAdd.add(new AbstractMap.SimpleEntry<>(entity.getLocation(), serialized));
                         }
                     }
                 }
                 for (Map.Entry<Location, Map<String, Object>> entry : entitiesToAdd) {
                     regionData.addEntity(entry.getKey(), entry.getValue());
                 }
-                AtomicInteger processedBlocks = new AtomicInteger(0);
-                int[] currentPos = { minX, minY, minZ };
-                final int fMinX = minX, fMinY = minY, fMinZ = minZ;
-                final int fMaxX = maxX, fMaxY = maxY, fMaxZ = maxZ;
-
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        int blocksThisTick = 0;
-
-                        while (blocksThisTick < blocksPerTick) {
-                            if (currentPos[0] > fMaxX) {
-                                cancel();
-
-                                regionData.setBlockDataLoaded(true);
-
-                                regionData.saveToDatc(datcFile)
-                                        .thenRun(() -> Bukkit.getScheduler().runTask(plugin, () -> {
-                                            plugin.markRegionDirty(regionName);
-                                            clearSelection(player);
-                                            if (plugin.getPlayerMoveListener() != null) {
-                                                plugin.getPlayerMoveListener().updateRegionBounds();
-                                            }
-                                            commandSender
-                                                    .sendMessage(regionCreated.replace("{arena_name}", regionName));
-                                        }))
-                                        .exceptionally(e -> {
-                                            Bukkit.getScheduler().runTask(plugin, () -> {
-                                                commandSender.sendMessage(pluginPrefix + ChatColor.RED
-                                                        + " Failed to save arena: " + e.getMessage());
-                                                plugin.getRegisteredRegions().remove(regionName);
-                                            });
-                                            return null;
-                                        });
-                                return;
-                            }
-
-                            Location loc = new Location(world, currentPos[0], currentPos[1], currentPos[2]);
-                            BlockData blockData = world.getBlockAt(loc).getBlockData();
-                            regionData.addBlockToSection("temp", loc, blockData);
-
-                            blocksThisTick++;
-                            processedBlocks.incrementAndGet();
-
-                            currentPos[2]++;
-                            if (currentPos[2] > fMaxZ) {
-                                currentPos[2] = fMinZ;
-                                currentPos[1]++;
-                                if (currentPos[1] > fMaxY) {
-                                    currentPos[1] = fMinY;
-                                    currentPos[0]++;
-                                }
-                            }
-                        }
-
-                        int processed = processedBlocks.get();
-                        if (processed % (blocksPerTick * 5) < blocksPerTick) {
-                            int percent = (int) ((processed * 100L) / totalBlocks);
+                new ArenaCapture(plugin, regionData, world, minX, minY, minZ, maxX, maxY, maxZ)
+                        .start((processed, total) -> {
+                            int percent = (int) ((processed * 100L) / total);
                             commandSender.sendMessage(
                                     pluginPrefix + ChatColor.GRAY + " Creating progress: " + ChatColor.WHITE + percent
-                                            + "%" + ChatColor.GRAY + " (" + processed + "/" + totalBlocks + " blocks)");
-                        }
-                    }
-                }.runTaskTimer(plugin, 1L, 1L);
+                                            + "%" + ChatColor.GRAY + " (" + processed + "/" + total + " blocks)");
+                        })
+                        .thenCompose(v -> {
+                            regionData.setBlockDataLoaded(true);
+                            return regionData.saveToDatc(datcFile);
+                        })
+                        .thenRun(() -> Bukkit.getScheduler().runTask(plugin, () -> {
+                            plugin.markRegionDirty(regionName);
+                            clearSelection(player);
+                            plugin.refreshRegionIndexes();
+                            commandSender.sendMessage(regionCreated.replace("{arena_name}", regionName));
+                        }))
+                        .exceptionally(e -> {
+                            Bukkit.getScheduler().runTask(plugin, () -> {
+                                commandSender.sendMessage(pluginPrefix + ChatColor.RED
+                                        + " Failed to save arena: " + e.getMessage());
+                                plugin.getRegisteredRegions().remove(regionName);
+                                plugin.refreshRegionIndexes();
+                            });
+                            return null;
+                        });
 
                 return true;
             }
@@ -366,9 +323,7 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
                 RegionData regionData = plugin.getRegisteredRegions().get(confirmedRegion);
                 Bukkit.getScheduler().runTask(plugin, () -> {
                     regionData.clearRegion(confirmedRegion);
-                    if (plugin.getPlayerMoveListener() != null) {
-                        plugin.getPlayerMoveListener().updateRegionBounds();
-                    }
+                    plugin.refreshRegionIndexes();
                     Bukkit.getScheduler().runTaskAsynchronously(plugin, plugin::saveRegionsAsync);
                     String regionDeletedMsg = regionDeleted.replace("{arena_name}", confirmedRegion);
                     commandSender.sendMessage(pluginPrefix + " " + regionDeletedMsg);
@@ -401,6 +356,14 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
                     return true;
                 }
 
+                synchronized (plugin.regeneratingArenas) {
+                    if (plugin.regeneratingArenas.contains(regionName)) {
+                        commandSender.sendMessage(pluginPrefix + ChatColor.RED
+                                + " Arena '" + regionName + "' is currently regenerating, try again once it finishes.");
+                        return true;
+                    }
+                }
+
                 Vector[] selection = getSelection(player);
                 if (selection == null || selection[0] == null || selection[1] == null) {
                     commandSender.sendMessage(pluginPrefix + ChatColor.RED
@@ -433,82 +396,44 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
                 regionData.setSpawnLocation(oldRegionData.getSpawnLocation());
                 commandSender.sendMessage(
                         pluginPrefix + ChatColor.YELLOW + " Resizing region '" + regionName + "', please wait...");
-                regionData.clearRegion(regionName);
 
                 int width = maxX - minX + 1;
                 int height = maxY - minY + 1;
                 int depth = maxZ - minZ + 1;
-                long totalBlocks = (long) width * height * depth;
-                int blocksPerTick = Math.min(100000, Math.max(1000, plugin.analyzeSpeed / 20));
-
-                AtomicInteger processedBlocks = new AtomicInteger(0);
-                String sectionName = "default";
-
-                int[] currentPos = { minX, minY, minZ };
-                final int fMinX = minX, fMinY = minY, fMinZ = minZ;
-                final int fMaxX = maxX, fMaxY = maxY, fMaxZ = maxZ;
-
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        int blocksThisTick = 0;
-
-                        while (blocksThisTick < blocksPerTick) {
-                            if (currentPos[0] > fMaxX) {
-                                cancel();
-
-                                File datcFile = new File(new File(plugin.getDataFolder(), "arenas"),
-                                        regionName + ".datc");
-                                regionData.setDatcFile(datcFile);
-                                regionData.setBlockDataLoaded(true);
-
-                                plugin.getRegisteredRegions().put(regionName, regionData);
-                                plugin.markRegionDirty(regionName);
-                                if (plugin.getPlayerMoveListener() != null) {
-                                    plugin.getPlayerMoveListener().updateRegionBounds();
-                                }
-
-                                regionData.saveToDatc(datcFile)
-                                        .thenRun(() -> Bukkit.getScheduler().runTask(plugin, () -> {
-                                            clearSelection(player);
-                                            commandSender.sendMessage(pluginPrefix + " "
-                                                    + regionResized.replace("{arena_name}", regionName));
-                                        })).exceptionally(e -> {
-                                            Bukkit.getScheduler().runTask(plugin, () -> {
-                                                commandSender.sendMessage(pluginPrefix + ChatColor.RED
-                                                        + " Failed to save resized arena: " + e.getMessage());
-                                            });
-                                            return null;
-                                        });
-                                return;
-                            }
-
-                            Location loc = new Location(world, currentPos[0], currentPos[1], currentPos[2]);
-                            BlockData blockData = world.getBlockAt(loc).getBlockData();
-                            regionData.addBlockToSection(sectionName, loc, blockData);
-
-                            blocksThisTick++;
-                            processedBlocks.incrementAndGet();
-                            currentPos[2]++;
-                            if (currentPos[2] > fMaxZ) {
-                                currentPos[2] = fMinZ;
-                                currentPos[1]++;
-                                if (currentPos[1] > fMaxY) {
-                                    currentPos[1] = fMinY;
-                                    currentPos[0]++;
-                                }
-                            }
-                        }
 
-                        int processed = processedBlocks.get();
-                        if (processed % (blocksPerTick * 5) < blocksPerTick) {
-                            int percent = (int) ((processed * 100L) / totalBlocks);
+                new ArenaCapture(plugin, regionData, world, minX, minY, minZ, maxX, maxY, maxZ)
+                        .start((processed, total) -> {
+                            int percent = (int) ((processed * 100L) / total);
                             commandSender.sendMessage(
                                     pluginPrefix + ChatColor.GRAY + " Resizing progress: " + ChatColor.WHITE + percent
-                                            + "%" + ChatColor.GRAY + " (" + processed + "/" + totalBlocks + " blocks)");
-                        }
-                    }
-                }.runTaskTimer(plugin, 1L, 1L);
+                                            + "%" + ChatColor.GRAY + " (" + processed + "/" + total + " blocks)");
+                        })
+                        .thenCompose(v -> {
+                            if (!plugin.getRegisteredRegions().replace(regionName, oldRegionData, regionData)) {
+                                throw new IllegalStateException("Arena '" + regionName + "' was changed while resizing");
+                            }
+                            oldRegionData.detachJournal();
+                            File datcFile = new File(new File(plugin.getDataFolder(), "arenas"), regionName + ".datc");
+                            regionData.setDatcFile(datcFile);
+                            regionData.setBlockDataLoaded(true);
+
+                            plugin.getPendingDeletions().remove(regionName);
+                            plugin.markRegionDirty(regionName);
+                            plugin.refreshRegionIndexes();
+                            return regionData.saveToDatc(datcFile);
+                        })
+                        .thenRun(() -> Bukkit.getScheduler().runTask(plugin, () -> {
+                            clearSelection(player);
+                            commandSender.sendMessage(pluginPrefix + " "
+                                    + regionResized.replace("{arena_name}", regionName));
+                        }))
+                        .exceptionally(e -> {
+                            Bukkit.getScheduler().runTask(plugin, () -> {
+                                commandSender.sendMessage(pluginPrefix + ChatColor.RED
+                                        + " Failed to save resized arena: " + e.getMessage());
+                            });
+                            return null;
+                        });
 
                 return true;
             }
@@ -700,8 +625,6 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
                 }
 
                 Bukkit.getScheduler().runTask(plugin, () -> regionData.setSpawnLocation(location));
-                plugin.markRegionDirty(targetArenaName);
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, plugin::saveRegionsAsync);
                 return true;
             }
 
@@ -729,8 +652,6 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
                 }
 
                 Bukkit.getScheduler().runTask(plugin, () -> regionData.setSpawnLocation(null));
-                plugin.markRegionDirty(targetArenaName);
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, plugin::saveRegionsAsync);
                 commandSender.sendMessage(spawnDeleted);
                 return true;
             }
@@ -1031,39 +952,13 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
                 continue;
             }
 
-            regionData.getSectionedBlockData().thenAccept(sectionedData -> {
-                Location min = null;
-                Location max = null;
-
-                for (Map<Location, BlockData> section : sectionedData.values()) {
-                    for (Location loc : section.keySet()) {
-                        if (min == null) {
-                            min = new Location(world, loc.getX(), loc.getY(), loc.getZ());
-                            max = new Location(world, loc.getX(), loc.getY(), loc.getZ());
-                        } else {
-                            min.setX(Math.min(min.getX(), loc.getX()));
-                            min.setY(Math.min(min.getY(), loc.getY()));
-                            min.setZ(Math.min(min.getZ(), loc.getZ()));
-                            max.setX(Math.max(max.getX(), loc.getX()));
-                            max.setY(Math.max(max.getY(), loc.getY()));
-                            max.setZ(Math.max(max.getZ(), loc.getZ()));
-                        }
-                    }
-                }
-
-                StringBuilder message = new StringBuilder();
-                message.append(ChatColor.GREEN).append("- ").append(name);
-
-                if (min != null) {
-                    message.append(String.format(": (%d, %d, %d) to (%d, %d, %d)",
-                            (int) min.getX(), (int) min.getY(), (int) min.getZ(),
-                            (int) max.getX(), (int) max.getY(), (int) max.getZ()));
-                } else {
-                    message.append(": No block data");
-                }
+            StringBuilder message = new StringBuilder();
+            message.append(ChatColor.GREEN).append("- ").append(name);
+            message.append(String.format(": (%d, %d, %d) to (%d, %d, %d)",
+                    regionData.getMinX(), regionData.getMinY(), regionData.getMinZ(),
+                    regionData.getMaxX(), regionData.getMaxY(), regionData.getMaxZ()));
 
-                sender.sendMessage(message.toString());
-            });
+            sender.sendMessage(message.toString());
         }
     }
 
@@ -1083,32 +978,15 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
             return;
         }
 
-        regionData.getSectionedBlockData().thenAccept(sectionedBlockData -> {
-            Location min = null;
-            Location max = null;
-            for (Map<Location, BlockData> section : sectionedBlockData.values()) {
-                for (Location loc : section.keySet()) {
-                    if (min == null) {
-                        min = new Location(world, loc.getX(), loc.getY(), loc.getZ());
-                        max = new Location(world, loc.getX(), loc.getY(), loc.getZ());
-                    } else {
-                        min.setX(Math.min(min.getX(), loc.getX()));
-                        min.setY(Math.min(min.getY(), loc.getY()));
-                        min.setZ(Math.min(min.getZ(), loc.getZ()));
-                        max.setX(Math.max(max.getX(), loc.getX()));
-                        max.setY(Math.max(max.getY(), loc.getY()));
-                        max.setZ(Math.max(max.getZ(), loc.getZ()));
-                    }
-                }
-            }
+        regionData.getSectionStats().thenAccept(stats -> {
             long size = (regionData.getArea());
             StringBuilder message = new StringBuilder();
             message.append(ChatColor.GREEN).append("Arena Details for ").append(regionName).append(":");
 
-            if (min != null) {
+            if (stats[1] > 0) {
                 message.append(String.format("\n" + ChatColor.GREEN + "  Coordinates: (%d, %d, %d) to (%d, %d, %d)",
-                        (int) min.getX(), (int) min.getY(), (int) min.getZ(),
-                        (int) max.getX(), (int) max.getY(), (int) max.getZ()));
+                        regionData.getMinX(), regionData.getMinY(), regionData.getMinZ(),
+                        regionData.getMaxX(), regionData.getMaxY(), regionData.getMaxZ()));
             } else {
                 message.append("\n" + ChatColor.GREEN + "  Coordinates: No block data");
             }
@@ -1134,7 +1012,10 @@ public class ArenaRegenCommand implements TabExecutor, Listener {
                     .append(regionData.getDepth())
                     .append(ChatColor.GRAY)
                     .append("\n  Sections: ").append(ChatColor.WHITE)
-                    .append(size);
+                    .append(stats[0])
+                    .append(ChatColor.GRAY)
+                    .append("\n  Stored Blocks: ").append(ChatColor.WHITE)
+                    .append(stats[1]);
 
             if (plugin.isScheduled(regionName)) {
                 long intervalTicks = plugin.getScheduledInterval(regionName);
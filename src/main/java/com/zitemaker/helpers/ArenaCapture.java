@@ -0,0 +1,148 @@
+package com.zitemaker.helpers;
+
+import com.zitemaker.ArenaRegen;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ArenaCapture {
+    private static final int PROGRESS_INTERVAL_TICKS = 20;
+    private static final int TILE_STATES_PER_TICK = 256;
+
+    private final ArenaRegen plugin;
+    private final RegionData regionData;
+    private final World world;
+    private final int minX, minY, minZ;
+    private final int maxX, maxY, maxZ;
+    private final AtomicLong capturedBlocks = new AtomicLong();
+    private final List<Long> tileStatePositions = new ArrayList<>();
+
+    public ArenaCapture(ArenaRegen plugin, RegionData regionData, World world,
+                        int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.plugin = plugin;
+        this.regionData = regionData;
+        this.world = world;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long capturedBlocks, long totalBlocks);
+    }
+
+    public long getTotalBlocks() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    public CompletableFuture<Void> start(ProgressListener listener) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        long totalBlocks = getTotalBlocks();
+        int[] ticks = new int[1];
+
+        new ChunkColumnReader(plugin, world, minX, minY, minZ, maxX, maxY, maxZ).read(this::decode, () -> {
+            if (++ticks[0] % PROGRESS_INTERVAL_TICKS == 0 && listener != null) {
+                listener.onProgress(capturedBlocks.get(), totalBlocks);
+            }
+        }).thenRun(() -> Bukkit.getScheduler().runTask(plugin, () -> captureTileStates(future)))
+                .exceptionally(e -> {
+                    future.completeExceptionally(e);
+                    return null;
+                });
+
+        return future;
+    }
+
+    private void decode(BlockVolume column) {
+        List<Long> tileStates = findTileStates(column);
+        regionData.addBlocks(column);
+        capturedBlocks.addAndGet(column.size());
+        if (!tileStates.isEmpty()) {
+            synchronized (tileStatePositions) {
+                tileStatePositions.addAll(tileStates);
+            }
+        }
+    }
+
+    private List<Long> findTileStates(BlockVolume column) {
+        List<Long> positions = new ArrayList<>();
+        int[] stateIds = column.getPaletteIds();
+        boolean[] tileState = new boolean[stateIds.length];
+        boolean any = false;
+        for (int p = 1; p < stateIds.length; p++) {
+            BlockData blockData = BlockStateRegistry.get(stateIds[p]);
+            if (blockData != null && regionData.hasTileState(blockData.getMaterial())) {
+                tileState[p] = true;
+                any = true;
+            }
+        }
+        if (!any) {
+            return positions;
+        }
+        for (int i = 0; i < column.size(); i++) {
+            if (tileState[column.getPaletteIndex(i)]) {
+                positions.add(packPosition(column.getX(i), column.getY(i), column.getZ(i)));
+            }
+        }
+        return positions;
+    }
+
+    private void captureTileStates(CompletableFuture<Void> future) {
+        List<Long> positions;
+        synchronized (tileStatePositions) {
+            positions = new ArrayList<>(tileStatePositions);
+        }
+        if (positions.isEmpty()) {
+            future.complete(null);
+            return;
+        }
+
+        new BukkitRunnable() {
+            private int next;
+
+            @Override
+            public void run() {
+                try {
+                    int end = Math.min(positions.size(), next + TILE_STATES_PER_TICK);
+                    for (; next < end; next++) {
+                        long position = positions.get(next);
+                        regionData.captureTileState(world, unpackX(position), unpackY(position), unpackZ(position));
+                    }
+                    if (next >= positions.size()) {
+                        cancel();
+                        future.complete(null);
+                    }
+                } catch (Exception e) {
+                    cancel();
+                    future.completeExceptionally(e);
+                }
+            }
+        }.runTaskTimer(plugin, 0L, 1L);
+    }
+
+    private static long packPosition(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static int unpackX(long position) {
+        return (int) (position >> 38);
+    }
+
+    private static int unpackY(long position) {
+        return (int) (position << 52 >> 52);
+    }
+
+    private static int unpackZ(long position) {
+        return (int) (position << 26 >> 38);
+    }
+}
@@ -0,0 +1,70 @@
+package com.zitemaker.helpers;
+
+import com.zitemaker.ArenaRegen;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+
+public class ArenaDiff {
+    private final ArenaRegen plugin;
+    private final World world;
+    private final BlockVolume stored;
+    private final int[] storedStateIds;
+    private final BitSet changed = new BitSet();
+
+    public ArenaDiff(ArenaRegen plugin, World world, BlockVolume stored) {
+        this.plugin = plugin;
+        this.world = world;
+        this.stored = stored;
+        this.storedStateIds = stored.getPaletteIds();
+    }
+
+    public CompletableFuture<BitSet> start() {
+        int minX = stored.getMinX(), minY = stored.getMinY(), minZ = stored.getMinZ();
+        int maxX = minX + stored.getSizeX() - 1;
+        int maxY = minY + stored.getSizeY() - 1;
+        int maxZ = minZ + stored.getSizeZ() - 1;
+        return new ChunkColumnReader(plugin, world, minX, minY, minZ, maxX, maxY, maxZ)
+                .read(this::compare, null)
+                .thenApply(v -> {
+                    synchronized (changed) {
+                        return (BitSet) changed.clone();
+                    }
+                });
+    }
+
+    private void compare(BlockVolume column) {
+        int[] currentStateIds = column.getPaletteIds();
+        int[] hits = new int[64];
+        int hitCount = 0;
+        int sizeX = column.getSizeX(), sizeY = column.getSizeY(), sizeZ = column.getSizeZ();
+        int columnIndex = 0;
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                int storedIndex = stored.index(column.getMinX(), column.getMinY() + y, column.getMinZ() + z);
+                for (int x = 0; x < sizeX; x++, columnIndex++, storedIndex++) {
+                    int storedPaletteIndex = stored.getPaletteIndex(storedIndex);
+                    if (storedPaletteIndex == 0) {
+                        continue;
+                    }
+                    if (storedStateIds[storedPaletteIndex] != currentStateIds[column.getPaletteIndex(columnIndex)]) {
+                        if (hitCount == hits.length) {
+                            hits = Arrays.copyOf(hits, hitCount * 2);
+                        }
+                        hits[hitCount++] = storedIndex;
+                    }
+                }
+            }
+        }
+        if (hitCount == 0) {
+            return;
+        }
+        synchronized (changed) {
+            for (int i = 0; i < hitCount; i++) {
+                changed.set(hits[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.zitemaker.helpers;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class ArenaEntityQuery {
+    private final World world;
+    private final int minX, minY, minZ;
+    private final int maxX, maxY, maxZ;
+
+    public ArenaEntityQuery(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.world = world;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    public List<Entity> getEntities() {
+        return collect(entity -> true);
+    }
+
+    public List<Entity> getNonPlayerEntities() {
+        return collect(entity -> !(entity instanceof Player));
+    }
+
+    public List<Player> getPlayers() {
+        List<Player> players = new ArrayList<>();
+        for (Entity entity : collect(entity -> entity instanceof Player)) {
+            players.add((Player) entity);
+        }
+        return players;
+    }
+
+    public int removeNonPlayerEntities() {
+        List<Entity> entities = getNonPlayerEntities();
+        for (Entity entity : entities) {
+            entity.remove();
+        }
+        return entities.size();
+    }
+
+    private List<Entity> collect(Predicate<Entity> filter) {
+        List<Entity> result = new ArrayList<>();
+        int minChunkX = minX >> 4, maxChunkX = maxX >> 4;
+        int minChunkZ = minZ >> 4, maxChunkZ = maxZ >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                    continue;
+                }
+                Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+                for (Entity entity : chunk.getEntities()) {
+                    if (filter.test(entity) && contains(entity.getLocation())) {
+                        result.add(entity);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean contains(Location loc) {
+        return loc.getX() >= minX && loc.getX() <= maxX &&
+                loc.getY() >= minY && loc.getY() <= maxY &&
+                loc.getZ() >= minZ && loc.getZ() <= maxZ;
+    }
+}
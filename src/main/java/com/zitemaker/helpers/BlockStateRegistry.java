@@ -0,0 +1,209 @@
+package com.zitemaker.helpers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.data.BlockData;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class BlockStateRegistry {
+    public static final int EMPTY = 0;
+
+    private static final Map<String, Integer> BY_STRING = new ConcurrentHashMap<>();
+    private static final Map<BlockData, Integer> BY_DATA = new ConcurrentHashMap<>();
+    private static final Object LOCK = new Object();
+
+    private static volatile BlockData[] states = new BlockData[256];
+    private static volatile String[] strings = new String[256];
+    private static int[] refCounts = new int[256];
+    private static final Set<Integer> pendingEviction = ConcurrentHashMap.newKeySet();
+    private static int nextId = 1;
+    private static int[] freeIds = new int[16];
+    private static int freeCount;
+    private static int activeUsers;
+    private static volatile int generation;
+    private static volatile int evictions;
+
+    private BlockStateRegistry() {
+    }
+
+    public static int getId(String blockDataString) {
+        int epoch = evictions;
+        Integer id = BY_STRING.get(blockDataString);
+        if (id != null && isLive(id, epoch, BY_STRING, blockDataString)) {
+            return id;
+        }
+        BlockData blockData = Bukkit.createBlockData(blockDataString);
+        int registered = register(blockData);
+        BY_STRING.putIfAbsent(blockDataString, registered);
+        return registered;
+    }
+
+    public static int getId(BlockData blockData) {
+        if (blockData == null) {
+            return EMPTY;
+        }
+        int epoch = evictions;
+        Integer id = BY_DATA.get(blockData);
+        return id != null && isLive(id, epoch, BY_DATA, blockData) ? id : register(blockData);
+    }
+
+    private static <K> boolean isLive(int id, int epoch, Map<K, Integer> lookup, K key) {
+        if (evictions == epoch && !pendingEviction.contains(id)) {
+            return true;
+        }
+        synchronized (LOCK) {
+            Integer current = lookup.get(key);
+            if (current == null || current != id) {
+                return false;
+            }
+            pendingEviction.remove(id);
+            return true;
+        }
+    }
+
+    public static BlockData getBlockData(String blockDataString) {
+        return get(getId(blockDataString));
+    }
+
+    public static BlockData get(int id) {
+        BlockData[] table = states;
+        return id > 0 && id < table.length ? table[id] : null;
+    }
+
+    public static String getString(int id) {
+        String[] table = strings;
+        String value = id > 0 && id < table.length ? table[id] : null;
+        return value != null ? value : "minecraft:air";
+    }
+
+    private static int register(BlockData blockData) {
+        synchronized (LOCK) {
+            Integer existing = BY_DATA.get(blockData);
+            if (existing != null) {
+                pendingEviction.remove(existing);
+                return existing;
+            }
+            int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+            BlockData[] stateTable = states;
+            String[] stringTable = strings;
+            if (id >= stateTable.length) {
+                int capacity = stateTable.length * 2;
+                stateTable = Arrays.copyOf(stateTable, capacity);
+                stringTable = Arrays.copyOf(stringTable, capacity);
+                refCounts = Arrays.copyOf(refCounts, capacity);
+            }
+            String blockDataString = blockData.getAsString();
+            stateTable[id] = blockData;
+            stringTable[id] = blockDataString;
+            strings = stringTable;
+            states = stateTable;
+            BY_DATA.put(blockData, id);
+            BY_STRING.putIfAbsent(blockDataString, id);
+            return id;
+        }
+    }
+
+    public static void retain(int id) {
+        if (id <= 0) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (id < nextId) {
+                refCounts[id]++;
+                pendingEviction.remove(id);
+            }
+        }
+    }
+
+    public static void release(int id) {
+        if (id <= 0) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (id < nextId && refCounts[id] > 0 && --refCounts[id] == 0) {
+                pendingEviction.add(id);
+            }
+        }
+    }
+
+    public static void beginUse() {
+        synchronized (LOCK) {
+            activeUsers++;
+        }
+    }
+
+    public static void endUse() {
+        synchronized (LOCK) {
+            activeUsers = Math.max(0, activeUsers - 1);
+        }
+    }
+
+    public static <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        future.whenComplete((result, error) -> endUse());
+        return future;
+    }
+
+    public static int evictUnused() {
+        synchronized (LOCK) {
+            if (pendingEviction.isEmpty() || activeUsers > 0) {
+                return 0;
+            }
+            evictions++;
+            BlockData[] stateTable = states;
+            String[] stringTable = strings;
+            Set<Integer> evicted = new HashSet<>();
+            for (int id : pendingEviction) {
+                if (refCounts[id] != 0 || stateTable[id] == null) {
+                    continue;
+                }
+                BY_DATA.remove(stateTable[id], id);
+                stateTable[id] = null;
+                stringTable[id] = null;
+                evicted.add(id);
+            }
+            pendingEviction.clear();
+            if (!evicted.isEmpty()) {
+                BY_STRING.values().removeIf(evicted::contains);
+                if (freeCount + evicted.size() > freeIds.length) {
+                    freeIds = Arrays.copyOf(freeIds, Math.max(freeIds.length * 2, freeCount + evicted.size()));
+                }
+                for (int id : evicted) {
+                    freeIds[freeCount++] = id;
+                }
+                generation++;
+            }
+            strings = stringTable;
+            states = stateTable;
+            return evicted.size();
+        }
+    }
+
+    public static int getGeneration() {
+        return generation;
+    }
+
+    public static int size() {
+        return BY_DATA.size();
+    }
+
+    public static void clear() {
+        synchronized (LOCK) {
+            BY_STRING.clear();
+            BY_DATA.clear();
+            pendingEviction.clear();
+            states = new BlockData[256];
+            strings = new String[256];
+            refCounts = new int[256];
+            nextId = 1;
+            activeUsers = 0;
+            freeIds = new int[16];
+            freeCount = 0;
+            generation++;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.zitemaker.helpers;
+
+import org.bukkit.block.data.BlockData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BlockVolume {
+    private static final int MAX_PALETTE_SIZE = 0xFFFF;
+
+    private final int minX, minY, minZ;
+    private final int sizeX, sizeY, sizeZ;
+    private final short[] indices;
+    private int[] paletteIds = new int[16];
+    private int paletteLength = 1;
+    private final Map<Integer, Integer> paletteLookup = new HashMap<>();
+    private boolean retained;
+    private int blockCount;
+
+    public BlockVolume(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+        long volume = (long) sizeX * sizeY * sizeZ;
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0 || volume > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Invalid block volume size: " + sizeX + "x" + sizeY + "x" + sizeZ);
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.indices = new short[(int) volume];
+    }
+
+    private BlockVolume(BlockVolume source) {
+        this.minX = source.minX;
+        this.minY = source.minY;
+        this.minZ = source.minZ;
+        this.sizeX = source.sizeX;
+        this.sizeY = source.sizeY;
+        this.sizeZ = source.sizeZ;
+        this.indices = source.indices.clone();
+        this.paletteIds = Arrays.copyOf(source.paletteIds, source.paletteIds.length);
+        this.paletteLength = source.paletteLength;
+        this.paletteLookup.putAll(source.paletteLookup);
+        this.blockCount = source.blockCount;
+    }
+
+    public synchronized BlockVolume copy() {
+        return new BlockVolume(this);
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x < minX + sizeX
+                && y >= minY && y < minY + sizeY
+                && z >= minZ && z < minZ + sizeZ;
+    }
+
+    public int index(int x, int y, int z) {
+        return ((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX);
+    }
+
+    public int getX(int index) {
+        return minX + index % sizeX;
+    }
+
+    public int getY(int index) {
+        return minY + index / (sizeX * sizeZ);
+    }
+
+    public int getZ(int index) {
+        return minZ + (index / sizeX) % sizeZ;
+    }
+
+    public int addToPalette(BlockData blockData) {
+        return addStateToPalette(BlockStateRegistry.getId(blockData));
+    }
+
+    public synchronized int addStateToPalette(int stateId) {
+        if (stateId == BlockStateRegistry.EMPTY) {
+            return 0;
+        }
+        Integer existing = paletteLookup.get(stateId);
+        if (existing != null) {
+            return existing;
+        }
+        if (paletteLength > MAX_PALETTE_SIZE) {
+            throw new IllegalStateException("Block volume palette is full (" + MAX_PALETTE_SIZE + " entries)");
+        }
+        if (paletteLength == paletteIds.length) {
+            paletteIds = Arrays.copyOf(paletteIds, paletteIds.length * 2);
+        }
+        int paletteIndex = paletteLength++;
+        paletteIds[paletteIndex] = stateId;
+        paletteLookup.put(stateId, paletteIndex);
+        if (retained) {
+            BlockStateRegistry.retain(stateId);
+        }
+        return paletteIndex;
+    }
+
+    public synchronized void retain() {
+        if (retained) {
+            return;
+        }
+        retained = true;
+        for (int i = 1; i < paletteLength; i++) {
+            BlockStateRegistry.retain(paletteIds[i]);
+        }
+    }
+
+    public synchronized void release() {
+        if (!retained) {
+            return;
+        }
+        retained = false;
+        for (int i = 1; i < paletteLength; i++) {
+            BlockStateRegistry.release(paletteIds[i]);
+        }
+    }
+
+    public void set(int x, int y, int z, BlockData blockData) {
+        if (!contains(x, y, z)) {
+            throw new IndexOutOfBoundsException("Block " + x + ", " + y + ", " + z + " is outside of the volume");
+        }
+        setPaletteIndex(index(x, y, z), blockData != null ? addToPalette(blockData) : 0);
+    }
+
+    public void setPaletteIndex(int index, int paletteIndex) {
+        int previous = indices[index] & 0xFFFF;
+        indices[index] = (short) paletteIndex;
+        if (previous == 0 && paletteIndex != 0) {
+            blockCount++;
+        } else if (previous != 0 && paletteIndex == 0) {
+            blockCount--;
+        }
+    }
+
+    public void paste(BlockVolume source) {
+        if (!contains(source.minX, source.minY, source.minZ)
+                || !contains(source.minX + source.sizeX - 1, source.minY + source.sizeY - 1, source.minZ + source.sizeZ - 1)) {
+            throw new IllegalArgumentException("Source volume is outside of the volume");
+        }
+        int[] sourceIds = source.getPaletteIds();
+        int[] mapping = new int[sourceIds.length];
+        for (int p = 1; p < sourceIds.length; p++) {
+            mapping[p] = addStateToPalette(sourceIds[p]);
+        }
+        int sourceIndex = 0;
+        for (int y = 0; y < source.sizeY; y++) {
+            for (int z = 0; z < source.sizeZ; z++) {
+                int index = index(source.minX, source.minY + y, source.minZ + z);
+                for (int x = 0; x < source.sizeX; x++, sourceIndex++, index++) {
+                    int paletteIndex = source.indices[sourceIndex] & 0xFFFF;
+                    if (paletteIndex != 0) {
+                        setPaletteIndex(index, mapping[paletteIndex]);
+                    }
+                }
+            }
+        }
+    }
+
+    public BlockData get(int x, int y, int z) {
+        if (!contains(x, y, z)) {
+            return null;
+        }
+        return getAt(index(x, y, z));
+    }
+
+    public BlockData getAt(int index) {
+        return getPaletteEntry(indices[index] & 0xFFFF);
+    }
+
+    public int getPaletteIndex(int index) {
+        return indices[index] & 0xFFFF;
+    }
+
+    public synchronized BlockData getPaletteEntry(int paletteIndex) {
+        return BlockStateRegistry.get(paletteIds[paletteIndex]);
+    }
+
+    public synchronized int getStateId(int paletteIndex) {
+        return paletteIds[paletteIndex];
+    }
+
+    public synchronized int getPaletteSize() {
+        return paletteLength - 1;
+    }
+
+    public synchronized int[] getPaletteIds() {
+        return Arrays.copyOf(paletteIds, paletteLength);
+    }
+
+    public BlockData[] getPalette() {
+        int[] ids = getPaletteIds();
+        BlockData[] entries = new BlockData[ids.length];
+        for (int i = 1; i < ids.length; i++) {
+            entries[i] = BlockStateRegistry.get(ids[i]);
+        }
+        return entries;
+    }
+
+    public void forEach(BlockConsumer consumer) {
+        BlockData[] entries = getPalette();
+        int index = 0;
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++, index++) {
+                    int paletteIndex = indices[index] & 0xFFFF;
+                    if (paletteIndex != 0) {
+                        consumer.accept(minX + x, minY + y, minZ + z, entries[paletteIndex]);
+                    }
+                }
+            }
+        }
+    }
+
+    public List<SectionBox> getSectionBoxes() {
+        List<SectionBox> boxes = new ArrayList<>();
+        int maxX = minX + sizeX - 1;
+        int maxY = minY + sizeY - 1;
+        int maxZ = minZ + sizeZ - 1;
+        for (int sectionX = minX >> 4; sectionX <= maxX >> 4; sectionX++) {
+            for (int sectionZ = minZ >> 4; sectionZ <= maxZ >> 4; sectionZ++) {
+                for (int sectionY = minY >> 4; sectionY <= maxY >> 4; sectionY++) {
+                    int x0 = Math.max(minX, sectionX << 4);
+                    int y0 = Math.max(minY, sectionY << 4);
+                    int z0 = Math.max(minZ, sectionZ << 4);
+                    int x1 = Math.min(maxX, (sectionX << 4) + 15);
+                    int y1 = Math.min(maxY, (sectionY << 4) + 15);
+                    int z1 = Math.min(maxZ, (sectionZ << 4) + 15);
+                    boxes.add(new SectionBox(sectionX, sectionY, sectionZ, x0, y0, z0,
+                            x1 - x0 + 1, y1 - y0 + 1, z1 - z0 + 1));
+                }
+            }
+        }
+        return boxes;
+    }
+
+    public int countBlocks(SectionBox box) {
+        int count = 0;
+        for (int y = box.getMinY(); y < box.getMinY() + box.getSizeY(); y++) {
+            for (int z = box.getMinZ(); z < box.getMinZ() + box.getSizeZ(); z++) {
+                int index = index(box.getMinX(), y, z);
+                for (int x = 0; x < box.getSizeX(); x++, index++) {
+                    if (indices[index] != 0) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    public int size() { return indices.length; }
+    public int getBlockCount() { return blockCount; }
+    public boolean isEmpty() { return blockCount == 0; }
+    public int getMinX() { return minX; }
+    public int getMinY() { return minY; }
+    public int getMinZ() { return minZ; }
+    public int getSizeX() { return sizeX; }
+    public int getSizeY() { return sizeY; }
+    public int getSizeZ() { return sizeZ; }
+
+    public static final class SectionBox {
+        private final int sectionX, sectionY, sectionZ;
+        private final int minX, minY, minZ;
+        private final int sizeX, sizeY, sizeZ;
+
+        public SectionBox(int sectionX, int sectionY, int sectionZ, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+            this.sectionX = sectionX;
+            this.sectionY = sectionY;
+            this.sectionZ = sectionZ;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.sizeZ = sizeZ;
+        }
+
+        public int getSectionX() { return sectionX; }
+        public int getSectionY() { return sectionY; }
+        public int getSectionZ() { return sectionZ; }
+        public int getMinX() { return minX; }
+        public int getMinY() { return minY; }
+        public int getMinZ() { return minZ; }
+        public int getSizeX() { return sizeX; }
+        public int getSizeY() { return sizeY; }
+        public int getSizeZ() { return sizeZ; }
+        public long getChunkKey() { return ((long) sectionX << 32) | (sectionZ & 0xFFFFFFFFL); }
+    }
+
+    @FunctionalInterface
+    public interface BlockConsumer {
+        void accept(int x, int y, int z, BlockData blockData);
+    }
+}
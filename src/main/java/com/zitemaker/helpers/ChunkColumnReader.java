@@ -0,0 +1,123 @@
+package com.zitemaker.helpers;
+
+import com.zitemaker.ArenaRegen;
+import com.zitemaker.nms.CapturedChunk;
+import com.zitemaker.nms.NMSHandler;
+import com.zitemaker.nms.NMSHandlerFactoryProvider;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class ChunkColumnReader {
+    private static final long SNAPSHOT_BUDGET_NANOS = 10_000_000L;
+
+    private final ArenaRegen plugin;
+    private final World world;
+    private final int minX, minY, minZ;
+    private final int maxX, maxY, maxZ;
+
+    public ChunkColumnReader(ArenaRegen plugin, World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.plugin = plugin;
+        this.world = world;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    @FunctionalInterface
+    public interface ColumnConsumer {
+        void accept(BlockVolume column);
+    }
+
+    public CompletableFuture<Void> read(ColumnConsumer consumer, Runnable tickListener) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        BlockStateRegistry.beginUse();
+        BlockStateRegistry.track(future);
+        List<CompletableFuture<Void>> decodes = new ArrayList<>();
+        int minChunkX = minX >> 4, maxChunkX = maxX >> 4;
+        int minChunkZ = minZ >> 4, maxChunkZ = maxZ >> 4;
+        NMSHandler handler = NMSHandlerFactoryProvider.getNMSHandler();
+        boolean nmsCapture = handler.supportsChunkCapture();
+
+        new BukkitRunnable() {
+            private int chunkX = minChunkX;
+            private int chunkZ = minChunkZ;
+
+            @Override
+            public void run() {
+                try {
+                    takeSnapshots();
+                } catch (Exception e) {
+                    cancel();
+                    future.completeExceptionally(e);
+                    return;
+                }
+                if (tickListener != null) {
+                    tickListener.run();
+                }
+            }
+
+            private void takeSnapshots() {
+                long deadline = System.nanoTime() + SNAPSHOT_BUDGET_NANOS;
+                do {
+                    if (chunkX > maxChunkX) {
+                        cancel();
+                        CompletableFuture.allOf(decodes.toArray(new CompletableFuture[0]))
+                                .thenRun(() -> future.complete(null))
+                                .exceptionally(e -> {
+                                    future.completeExceptionally(e);
+                                    return null;
+                                });
+                        return;
+                    }
+
+                    int cx = chunkX, cz = chunkZ;
+                    CapturedChunk source;
+                    if (nmsCapture) {
+                        source = handler.captureChunk(world, cx, cz, minY, maxY);
+                    } else {
+                        ChunkSnapshot snapshot = world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false);
+                        source = column -> copySnapshot(snapshot, column);
+                    }
+                    decodes.add(CompletableFuture.runAsync(() -> consumer.accept(decode(cx, cz, source)), plugin.getWorkerPool()));
+
+                    if (++chunkZ > maxChunkZ) {
+                        chunkZ = minChunkZ;
+                        chunkX++;
+                    }
+                } while (System.nanoTime() < deadline);
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+
+        return future;
+    }
+
+    private BlockVolume decode(int chunkX, int chunkZ, CapturedChunk source) {
+        int x0 = Math.max(minX, chunkX << 4);
+        int z0 = Math.max(minZ, chunkZ << 4);
+        int x1 = Math.min(maxX, (chunkX << 4) + 15);
+        int z1 = Math.min(maxZ, (chunkZ << 4) + 15);
+        BlockVolume column = new BlockVolume(x0, minY, z0, x1 - x0 + 1, maxY - minY + 1, z1 - z0 + 1);
+        source.copyTo(column);
+        return column;
+    }
+
+    private void copySnapshot(ChunkSnapshot snapshot, BlockVolume column) {
+        int x0 = column.getMinX(), x1 = x0 + column.getSizeX() - 1;
+        int z0 = column.getMinZ(), z1 = z0 + column.getSizeZ() - 1;
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = z0; z <= z1; z++) {
+                for (int x = x0; x <= x1; x++) {
+                    column.set(x, y, z, snapshot.getBlockData(x & 15, y, z & 15));
+                }
+            }
+        }
+    }
+}
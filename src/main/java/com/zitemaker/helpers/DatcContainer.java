@@ -0,0 +1,293 @@
+package com.zitemaker.helpers;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public final class DatcContainer {
+    public static final int MAGIC = 0x44415443;
+    public static final int VERSION = 6;
+
+    public static final byte KIND_HEADER = 0;
+    public static final byte KIND_SECTION = 1;
+    public static final byte KIND_ENTITIES = 2;
+    public static final byte KIND_BANNERS = 3;
+    public static final byte KIND_SIGNS = 4;
+    public static final byte KIND_MODIFIED = 5;
+
+    private static final int PREAMBLE_SIZE = 8;
+    private static final int FOOTER_SIZE = 12;
+    private static final int ENTRY_SIZE = 33;
+
+    private DatcContainer() {
+    }
+
+    public static boolean isContainer(File file) throws IOException {
+        if (file.length() < PREAMBLE_SIZE + FOOTER_SIZE) {
+            return false;
+        }
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            return dis.readInt() == MAGIC;
+        }
+    }
+
+    @FunctionalInterface
+    public interface MemberWriter {
+        void write(DataOutputStream dos) throws IOException;
+    }
+
+    public static final class Entry {
+        private final byte kind;
+        private final int x, y, z;
+        private final long offset;
+        private final int length;
+        private final int rawLength;
+        private final int blockCount;
+
+        Entry(byte kind, int x, int y, int z, long offset, int length, int rawLength, int blockCount) {
+            this.kind = kind;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.offset = offset;
+            this.length = length;
+            this.rawLength = rawLength;
+            this.blockCount = blockCount;
+        }
+
+        public byte getKind() { return kind; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getZ() { return z; }
+        public int getLength() { return length; }
+        public int getRawLength() { return rawLength; }
+        public int getBlockCount() { return blockCount; }
+        public long getChunkKey() { return ((long) x << 32) | (z & 0xFFFFFFFFL); }
+    }
+
+    public static final class EncodedMember {
+        private final byte kind;
+        private final int x, y, z;
+        private final int blockCount;
+        private final int rawLength;
+        private final byte[] data;
+
+        EncodedMember(byte kind, int x, int y, int z, int blockCount, int rawLength, byte[] data) {
+            this.kind = kind;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.blockCount = blockCount;
+            this.rawLength = rawLength;
+            this.data = data;
+        }
+
+        public byte getKind() { return kind; }
+        public int getBlockCount() { return blockCount; }
+        public int getRawLength() { return rawLength; }
+        public int getLength() { return data.length; }
+    }
+
+    public static EncodedMember encode(byte kind, int x, int y, int z, int blockCount, int compressionLevel, MemberWriter memberWriter) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(raw)) {
+            memberWriter.write(dos);
+        }
+        byte[] bytes = raw.toByteArray();
+
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                compressed.write(buffer, 0, n);
+            }
+            return new EncodedMember(kind, x, y, z, blockCount, bytes.length, compressed.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final List<Entry> entries = new ArrayList<>();
+        private long position;
+
+        public Writer(File file, int bufferSize) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), bufferSize));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            position = PREAMBLE_SIZE;
+        }
+
+        public Entry write(EncodedMember member) throws IOException {
+            out.write(member.data);
+            Entry entry = new Entry(member.kind, member.x, member.y, member.z, position, member.data.length, member.rawLength, member.blockCount);
+            entries.add(entry);
+            position += member.data.length;
+            return entry;
+        }
+
+        public void finish() throws IOException {
+            long tocOffset = position;
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeByte(entry.kind);
+                out.writeInt(entry.x);
+                out.writeInt(entry.y);
+                out.writeInt(entry.z);
+                out.writeLong(entry.offset);
+                out.writeInt(entry.length);
+                out.writeInt(entry.rawLength);
+                out.writeInt(entry.blockCount);
+            }
+            out.writeLong(tocOffset);
+            out.writeInt(MAGIC);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final List<Entry> entries;
+
+        public Reader(File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid .datc file: File too large (" + size + " bytes)");
+                }
+                if (size < PREAMBLE_SIZE + FOOTER_SIZE) {
+                    throw new IOException("Invalid .datc file: Truncated container");
+                }
+                ByteBuffer preamble = readFully(0, PREAMBLE_SIZE);
+                ByteBuffer footer = readFully(size - FOOTER_SIZE, FOOTER_SIZE);
+                if (preamble.getInt(0) != MAGIC || footer.getInt(8) != MAGIC) {
+                    throw new IOException("Invalid .datc file: Missing container magic");
+                }
+                int version = preamble.getInt(4);
+                if (version != VERSION) {
+                    throw new IOException("Unsupported .datc container version: " + version);
+                }
+
+                long tocOffset = footer.getLong(0);
+                if (tocOffset < PREAMBLE_SIZE || tocOffset + 4 > size - FOOTER_SIZE) {
+                    throw new IOException("Invalid .datc file: Bad table of contents offset");
+                }
+                int count = readFully(tocOffset, 4).getInt(0);
+                if (count < 0 || tocOffset + 4 + (long) count * ENTRY_SIZE > size - FOOTER_SIZE) {
+                    throw new IOException("Invalid .datc file: Bad table of contents size");
+                }
+
+                ByteBuffer toc = readFully(tocOffset + 4, count * ENTRY_SIZE);
+                List<Entry> list = new ArrayList<>(count);
+                int pos = 0;
+                for (int i = 0; i < count; i++) {
+                    byte kind = toc.get(pos);
+                    int x = toc.getInt(pos + 1);
+                    int y = toc.getInt(pos + 5);
+                    int z = toc.getInt(pos + 9);
+                    long offset = toc.getLong(pos + 13);
+                    int length = toc.getInt(pos + 21);
+                    int rawLength = toc.getInt(pos + 25);
+                    int blockCount = toc.getInt(pos + 29);
+                    if (offset < PREAMBLE_SIZE || length < 0 || rawLength < 0 || offset + length > tocOffset) {
+                        throw new IOException("Invalid .datc file: Bad table of contents entry " + i);
+                    }
+                    list.add(new Entry(kind, x, y, z, offset, length, rawLength, blockCount));
+                    pos += ENTRY_SIZE;
+                }
+                this.entries = Collections.unmodifiableList(list);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private ByteBuffer readFully(long position, int length) throws IOException {
+            ByteBuffer target = ByteBuffer.allocate(length);
+            while (target.hasRemaining()) {
+                int n = channel.read(target, position + target.position());
+                if (n < 0) {
+                    throw new IOException("Invalid .datc file: Unexpected end of file at offset " + (position + target.position()));
+                }
+            }
+            target.flip();
+            return target;
+        }
+
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        public List<Entry> getEntries(byte kind) {
+            List<Entry> result = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (entry.kind == kind) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        }
+
+        public Entry getEntry(byte kind) {
+            for (Entry entry : entries) {
+                if (entry.kind == kind) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        public byte[] read(Entry entry) throws IOException {
+            ByteBuffer slice = readFully(entry.offset, entry.length);
+
+            byte[] raw = new byte[entry.rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(slice);
+                int n = 0;
+                while (n < raw.length) {
+                    int read = inflater.inflate(raw, n, raw.length - n);
+                    if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += read;
+                }
+                if (n != raw.length) {
+                    throw new IOException("Invalid .datc file: Truncated member at offset " + entry.offset);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Invalid .datc file: Corrupt member at offset " + entry.offset, e);
+            } finally {
+                inflater.end();
+            }
+            return raw;
+        }
+
+        public DataInputStream open(Entry entry) throws IOException {
+            return new DataInputStream(new ByteArrayInputStream(read(entry)));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.zitemaker.helpers;
+
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.bukkit.util.Vector;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public final class EntityCodec {
+    public static final byte VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_BYTE = 2;
+    private static final byte TAG_SHORT = 3;
+    private static final byte TAG_INT = 4;
+    private static final byte TAG_LONG = 5;
+    private static final byte TAG_FLOAT = 6;
+    private static final byte TAG_DOUBLE = 7;
+    private static final byte TAG_FALSE = 8;
+    private static final byte TAG_TRUE = 9;
+    private static final byte TAG_VECTOR = 10;
+    private static final byte TAG_MAP = 11;
+    private static final byte TAG_LIST = 12;
+    private static final byte TAG_SERIALIZABLE = 13;
+
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_ELEMENTS = 1 << 16;
+    private static final int MAX_STRING_LENGTH = 1 << 20;
+
+    private static final ObjectInputFilter LEGACY_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=64;maxrefs=65536;maxbytes=16777216;maxarray=65536;" +
+            "java.util.HashMap;java.util.LinkedHashMap;java.util.ArrayList;java.util.Map$Entry;" +
+            "java.lang.Object;java.lang.String;java.lang.Number;java.lang.Boolean;java.lang.Byte;java.lang.Short;" +
+            "java.lang.Integer;java.lang.Long;java.lang.Float;java.lang.Double;!*");
+
+    private EntityCodec() {
+    }
+
+    public static byte[] encode(Map<String, Object> data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            dos.writeByte(VERSION);
+            writeValue(dos, data, 0);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> decode(byte[] bytes) throws IOException {
+        if (isLegacy(bytes)) {
+            return decodeLegacy(bytes);
+        }
+        if (bytes.length == 0) {
+            throw new IOException("Empty entity data");
+        }
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int version = dis.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported entity data version " + version);
+            }
+            Object value = readValue(dis, 0);
+            if (!(value instanceof Map<?, ?>)) {
+                throw new IOException("Entity data is not a map");
+            }
+            return (Map<String, Object>) value;
+        }
+    }
+
+    public static boolean isLegacy(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> decodeLegacy(byte[] bytes) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ois.setObjectInputFilter(LEGACY_FILTER);
+            Object value = ois.readObject();
+            if (!(value instanceof Map<?, ?>)) {
+                throw new IOException("Legacy entity data is not a map");
+            }
+            return (Map<String, Object>) value;
+        } catch (ClassNotFoundException | InvalidClassException e) {
+            throw new IOException("Rejected legacy entity data: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream dos, Object value, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Entity data is nested too deeply");
+        }
+        if (value == null) {
+            dos.writeByte(TAG_NULL);
+        } else if (value instanceof String string) {
+            dos.writeByte(TAG_STRING);
+            writeString(dos, string);
+        } else if (value instanceof Boolean bool) {
+            dos.writeByte(bool ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer number) {
+            dos.writeByte(TAG_INT);
+            dos.writeInt(number);
+        } else if (value instanceof Double number) {
+            dos.writeByte(TAG_DOUBLE);
+            dos.writeDouble(number);
+        } else if (value instanceof Float number) {
+            dos.writeByte(TAG_FLOAT);
+            dos.writeFloat(number);
+        } else if (value instanceof Long number) {
+            dos.writeByte(TAG_LONG);
+            dos.writeLong(number);
+        } else if (value instanceof Short number) {
+            dos.writeByte(TAG_SHORT);
+            dos.writeShort(number);
+        } else if (value instanceof Byte number) {
+            dos.writeByte(TAG_BYTE);
+            dos.writeByte(number);
+        } else if (value instanceof Vector vector) {
+            dos.writeByte(TAG_VECTOR);
+            dos.writeDouble(vector.getX());
+            dos.writeDouble(vector.getY());
+            dos.writeDouble(vector.getZ());
+        } else if (value instanceof Map<?, ?> map) {
+            dos.writeByte(TAG_MAP);
+            dos.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(dos, entry.getKey(), depth + 1);
+                writeValue(dos, entry.getValue(), depth + 1);
+            }
+        } else if (value instanceof Collection<?> list) {
+            dos.writeByte(TAG_LIST);
+            dos.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(dos, item, depth + 1);
+            }
+        } else if (value instanceof ConfigurationSerializable serializable) {
+            dos.writeByte(TAG_SERIALIZABLE);
+            writeString(dos, ConfigurationSerialization.getAlias(serializable.getClass()));
+            writeValue(dos, serializable.serialize(), depth + 1);
+        } else {
+            dos.writeByte(TAG_NULL);
+        }
+    }
+
+    private static Object readValue(DataInputStream dis, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Entity data is nested too deeply");
+        }
+        byte tag = dis.readByte();
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_STRING -> readString(dis);
+            case TAG_BYTE -> dis.readByte();
+            case TAG_SHORT -> dis.readShort();
+            case TAG_INT -> dis.readInt();
+            case TAG_LONG -> dis.readLong();
+            case TAG_FLOAT -> dis.readFloat();
+            case TAG_DOUBLE -> dis.readDouble();
+            case TAG_FALSE -> Boolean.FALSE;
+            case TAG_TRUE -> Boolean.TRUE;
+            case TAG_VECTOR -> {
+                Map<String, Object> vector = new HashMap<>();
+                vector.put("x", dis.readDouble());
+                vector.put("y", dis.readDouble());
+                vector.put("z", dis.readDouble());
+                yield vector;
+            }
+            case TAG_MAP -> {
+                int size = readSize(dis);
+                Map<Object, Object> map = new HashMap<>(Math.max(4, size * 2));
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(dis, depth + 1);
+                    map.put(key, readValue(dis, depth + 1));
+                }
+                yield map;
+            }
+            case TAG_LIST -> {
+                int size = readSize(dis);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(dis, depth + 1));
+                }
+                yield list;
+            }
+            case TAG_SERIALIZABLE -> {
+                String alias = readString(dis);
+                Object value = readValue(dis, depth + 1);
+                if (!(value instanceof Map<?, ?> rawMap)) {
+                    throw new IOException("Serialized object '" + alias + "' has no data");
+                }
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> entry : rawMap.entrySet()) {
+                    if (entry.getKey() instanceof String key) {
+                        map.put(key, entry.getValue());
+                    }
+                }
+                map.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, alias);
+                yield ConfigurationSerialization.deserializeObject(map);
+            }
+            default -> throw new IOException("Unknown entity data tag " + tag);
+        };
+    }
+
+    private static int readSize(DataInputStream dis) throws IOException {
+        int size = dis.readInt();
+        if (size < 0 || size > MAX_ELEMENTS) {
+            throw new IOException("Invalid entity data size " + size);
+        }
+        return size;
+    }
+
+    private static void writeString(DataOutputStream dos, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    private static String readString(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("Invalid entity data string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        dis.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,42 @@
+package com.zitemaker.helpers;
+
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+public class EntityRestorePlan {
+    private static final Comparator<Map.Entry<Location, Map<String, Object>>> CHUNK_ORDER = Comparator
+            .<Map.Entry<Location, Map<String, Object>>>comparingInt(entry -> entry.getKey().getBlockX() >> 4)
+            .thenComparingInt(entry -> entry.getKey().getBlockZ() >> 4);
+
+    private final List<Map.Entry<Location, Map<String, Object>>> entities;
+
+    private EntityRestorePlan(List<Map.Entry<Location, Map<String, Object>>> entities) {
+        this.entities = entities;
+    }
+
+    public static EntityRestorePlan compile(Map<Location, Map<String, Object>> entityDataMap) {
+        List<Map.Entry<Location, Map<String, Object>>> entities = new ArrayList<>(entityDataMap.entrySet());
+        entities.sort(CHUNK_ORDER);
+        return new EntityRestorePlan(entities);
+    }
+
+    public int size() {
+        return entities.size();
+    }
+
+    public int apply(int from, long deadline) {
+        int index = from;
+        while (index < entities.size()) {
+            Map.Entry<Location, Map<String, Object>> entry = entities.get(index++);
+            EntitySerializer.deserializeEntity(entry.getValue(), entry.getKey().clone());
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        return index;
+    }
+}
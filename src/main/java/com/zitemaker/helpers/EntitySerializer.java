@@ -15,6 +15,7 @@ import org.bukkit.util.Vector;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 public final class EntitySerializer {
@@ -117,36 +118,42 @@ public final class EntitySerializer {
                 return;
             }
 
-            Entity entity = world.spawnEntity(location, type);
-            location.setYaw(getFloat(data, "yaw"));
-            location.setPitch(getFloat(data, "pitch"));
-            entity.teleport(location);
-
-            if (data.containsKey("velocity")) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> velocityData = (Map<String, Object>) data.get("velocity");
-                entity.setVelocity(deserializeVector(velocityData));
+            if (getBoolean(data, "isDead", false)) {
+                return;
             }
-            if (data.containsKey("isDead") && getBoolean(data, "isDead", false)) {
-                entity.remove();
+            Class<? extends Entity> entityClass = type.getEntityClass();
+            if (entityClass == null) {
+                LOGGER.warning("Cannot spawn entity of type '" + typeStr + "' at " + location);
                 return;
             }
 
-            if (data.containsKey("customName") && data.get("customName") instanceof String customName) {
-                entity.setCustomName(customName);
-                entity.setCustomNameVisible(getBoolean(data, "customNameVisible", false));
-            }
+            location.setYaw(getFloat(data, "yaw"));
+            location.setPitch(getFloat(data, "pitch"));
+            Consumer<Entity> configure = entity -> configureEntity(entity, type, data);
+            world.spawn(location, entityClass, configure);
+        } catch (Exception e) {
+            LOGGER.warning("Deserialization failed for type '" + typeStr + "': " + e.getMessage());
+        }
+    }
 
-            if (entity instanceof LivingEntity livingEntity) {
-                deserializeLivingEntity(livingEntity, data);
-            }
+    private static void configureEntity(Entity entity, EntityType type, Map<String, Object> data) {
+        if (data.containsKey("velocity")) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> velocityData = (Map<String, Object>) data.get("velocity");
+            entity.setVelocity(deserializeVector(velocityData));
+        }
 
-            SERIALIZER_REGISTRY.getOrDefault(type, (e, d, s) -> {})
-                    .process(entity, data, false);
+        if (data.containsKey("customName") && data.get("customName") instanceof String customName) {
+            entity.setCustomName(customName);
+            entity.setCustomNameVisible(getBoolean(data, "customNameVisible", false));
+        }
 
-        } catch (Exception e) {
-            LOGGER.warning("Deserialization failed for type '" + typeStr + "': " + e.getMessage());
+        if (entity instanceof LivingEntity livingEntity) {
+            deserializeLivingEntity(livingEntity, data);
         }
+
+        SERIALIZER_REGISTRY.getOrDefault(type, (e, d, s) -> {})
+                .process(entity, data, false);
     }
 
     private static Map<String, Object> serializeLocation(Location loc) {
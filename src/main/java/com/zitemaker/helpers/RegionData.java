@@ -1,7 +1,11 @@
 package com.zitemaker.helpers;
 
 import com.zitemaker.ArenaRegen;
+import com.zitemaker.nms.NMSHandlerFactoryProvider;
+import com.zitemaker.nms.ResolvedPalette;
+import com.zitemaker.regen.RegenPlan;
 import org.bukkit.*;
+import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.Banner;
@@ -16,53 +20,23 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 public class RegionData {
     private static final Logger LOGGER = JavaPlugin.getPlugin(ArenaRegen.class).getLogger();
-    private static final String FILE_FORMAT_VERSION = "4";
+    private static final String FILE_FORMAT_VERSION = String.valueOf(DatcContainer.VERSION);
+    private static final int PALETTED_SECTIONS_VERSION = 5;
     private static final int GZIP_COMPRESSION_LEVEL = 6;
     private static final byte[] GZIP_MAGIC = new byte[] { (byte) 0x1F, (byte) 0x8B };
 
-    
-    
-    private static final Map<String, BlockData> BLOCK_DATA_CACHE = new ConcurrentHashMap<>();
-    private static final int MAX_CACHE_SIZE = 10000; 
-
-    
-    public static BlockData getCachedBlockData(String blockDataString) {
-        
-        BlockData cached = BLOCK_DATA_CACHE.get(blockDataString);
-        if (cached != null) {
-            return cached;
-        }
-
-        
-        BlockData blockData = Bukkit.createBlockData(blockDataString);
-
-        
-        if (BLOCK_DATA_CACHE.size() < MAX_CACHE_SIZE) {
-            BLOCK_DATA_CACHE.put(blockDataString, blockData);
-        }
-
-        return blockData;
-    }
-
-    
-    public static void clearBlockDataCache() {
-        BLOCK_DATA_CACHE.clear();
-        LOGGER.info("[ArenaRegen] BlockData cache cleared.");
-    }
-
-    
-    public static int getBlockDataCacheSize() {
-        return BLOCK_DATA_CACHE.size();
-    }
-
     private static final List<String> KNOWN_PATTERN_IDENTIFIERS = Arrays.asList(
             "base", "square_bottom_left", "square_bottom_right", "square_top_left", "square_top_right",
             "stripe_bottom", "stripe_top", "stripe_left", "stripe_right", "stripe_center", "stripe_middle",
@@ -75,9 +49,20 @@ public class RegionData {
     );
 
     private final ArenaRegen plugin;
-    public final Map<String, Map<Location, BlockData>> sectionedBlockData = new ConcurrentHashMap<>();
+    private volatile BlockVolume blockVolume;
+    private ResolvedPalette resolvedPalette;
+    private final AtomicInteger volumeVersion = new AtomicInteger();
+    private RegenPlan regenPlan;
+    private int regenPlanVersion;
+    private final AtomicInteger tileStateVersion = new AtomicInteger();
+    private TileRestorePlan tileRestorePlan;
+    private int tileRestorePlanVersion = -1;
     private final Map<Location, Map<String, Object>> entityDataMap = new ConcurrentHashMap<>();
-    private final Map<Location, BlockData> modifiedBlocks = new ConcurrentHashMap<>();
+    private final BitSet modifiedBlocks = new BitSet();
+    private final Object journalLock = new Object();
+    private int[] pendingModified = new int[48];
+    private int pendingModifiedCount;
+    private volatile boolean changeTrackingComplete = false;
     private final Map<Location, Map<String, Object>> bannerStates = new ConcurrentHashMap<>();
     private final Map<Location, Map<String, Object>> signStates = new ConcurrentHashMap<>();
 
@@ -91,7 +76,10 @@ public class RegionData {
     private Location spawnLocation;
     private boolean locked = false;
     private boolean isBlockDataLoaded = false;
+    private volatile boolean headerLoaded = false;
+    private volatile boolean stateDataLoaded = false;
     private File datcFile;
+    private RegionJournal journal;
     private boolean loadFailed = false;
     private boolean isLoading = false;
     private CompletableFuture<Void> blockDataLoadFuture = null;
@@ -106,142 +94,268 @@ public class RegionData {
 
     public void setSpawnLocation(Location location) {
         this.spawnLocation = location != null ? location.clone() : null;
+        Location spawn = spawnLocation;
+        appendJournal(RegionJournal.RECORD_SPAWN, dos -> {
+            dos.writeBoolean(spawn != null);
+            if (spawn != null) {
+                dos.writeDouble(spawn.getX());
+                dos.writeDouble(spawn.getY());
+                dos.writeDouble(spawn.getZ());
+                dos.writeFloat(spawn.getYaw());
+                dos.writeFloat(spawn.getPitch());
+            }
+        });
     }
 
     public void setLocked(boolean locked) {
         this.locked = locked;
-        if (datcFile != null) {
-            String regionName = datcFile.getName().replace(".datc", "");
-            plugin.markRegionDirty(regionName);
+        appendJournal(RegionJournal.RECORD_LOCK, dos -> dos.writeBoolean(locked));
+    }
+
+    private synchronized RegionJournal getJournal(File file) {
+        if (journal == null || !journal.getFile().equals(RegionJournal.fileFor(file))) {
+            journal = new RegionJournal(file);
         }
+        return journal;
     }
 
-    public Location getSpawnLocation() {
-        return spawnLocation != null ? spawnLocation.clone() : null;
+    private void appendJournal(byte type, DatcContainer.MemberWriter writer) {
+        synchronized (journalLock) {
+            appendPendingModified();
+            writeJournal(type, writer);
+        }
     }
 
-    public void addBlockToSection(String section, Location location, BlockData blockData) {
-        sectionedBlockData.computeIfAbsent(section, k -> new ConcurrentHashMap<>()).put(location, blockData);
+    private void appendPendingModified() {
+        int[] positions;
+        int count;
+        synchronized (modifiedBlocks) {
+            count = pendingModifiedCount;
+            if (count == 0) {
+                return;
+            }
+            positions = Arrays.copyOf(pendingModified, count * 3);
+            pendingModifiedCount = 0;
+        }
+        writeJournal(RegionJournal.RECORD_MODIFIED_POSITIONS, dos -> {
+            dos.writeInt(count);
+            for (int i = 0; i < count * 3; i++) {
+                dos.writeInt(positions[i]);
+            }
+        });
+    }
 
-        
-        
-        Material mat = blockData.getMaterial();
-        if (isBannerMaterial(mat) || isSignMaterial(mat)) {
-            World world = location.getWorld();
-            if (world != null) {
-                BlockState state = world.getBlockAt(location).getState();
-                if (state instanceof Banner) {
-                    Banner banner = (Banner) state;
-                    Map<String, Object> bannerData = new HashMap<>();
-                    DyeColor baseColor = banner.getBaseColor();
-                    bannerData.put("baseColor", baseColor != null ? baseColor.name() : "NONE");
-                    List<Map<String, String>> patternDataList = new ArrayList<>();
-                    for (Pattern pattern : banner.getPatterns()) {
-                        Map<String, String> patternData = new HashMap<>();
-                        DyeColor color = pattern.getColor();
-                        patternData.put("color", color.name());
-                        String patternIdentifier = resolvePatternIdentifier(pattern);
-                        patternData.put("type", patternIdentifier);
-                        patternDataList.add(patternData);
+    public void flushJournal() {
+        synchronized (journalLock) {
+            appendPendingModified();
+        }
+        File file = datcFile;
+        if (file == null || !file.exists()) {
+            return;
+        }
+        String regionName = file.getName().replace(".datc", "");
+        RegionJournal regionJournal = getJournal(file);
+        try {
+            regionJournal.flush();
+            if (regionJournal.size() > plugin.journalCompactSize) {
+                plugin.markRegionDirty(regionName);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("[ArenaRegen] Failed to flush journal for " + file.getName() + ": " + e.getMessage() + ", falling back to a full save.");
+            plugin.markRegionDirty(regionName);
+        }
+    }
+
+    private void writeJournal(byte type, DatcContainer.MemberWriter writer) {
+        File file = datcFile;
+        if (file == null) {
+            for (Map.Entry<String, RegionData> entry : plugin.getRegisteredRegions().entrySet()) {
+                if (entry.getValue() == this) {
+                    plugin.markRegionDirty(entry.getKey());
+                    return;
+                }
+            }
+            return;
+        }
+        String regionName = file.getName().replace(".datc", "");
+        if (!file.exists()) {
+            plugin.markRegionDirty(regionName);
+            return;
+        }
+        RegionJournal regionJournal = getJournal(file);
+        try {
+            regionJournal.append(type, writer);
+        } catch (IOException e) {
+            LOGGER.warning("[ArenaRegen] Failed to append to journal for " + file.getName() + ": " + e.getMessage() + ", falling back to a full save.");
+            plugin.markRegionDirty(regionName);
+        }
+    }
+
+    private void replayJournal(File file, World world, boolean applyHeaderRecords, boolean applyStateRecords) {
+        flushJournal();
+        RegionJournal regionJournal = getJournal(file);
+        try {
+            int records = regionJournal.replay((type, dis) -> {
+                switch (type) {
+                    case RegionJournal.RECORD_SPAWN -> {
+                        if (!dis.readBoolean()) {
+                            if (applyHeaderRecords) {
+                                spawnLocation = null;
+                            }
+                            return;
+                        }
+                        Location spawn = new Location(world, dis.readDouble(), dis.readDouble(), dis.readDouble(), dis.readFloat(), dis.readFloat());
+                        if (applyHeaderRecords) {
+                            spawnLocation = spawn;
+                        }
                     }
-                    bannerData.put("patterns", patternDataList);
-                    PersistentDataContainer pdc = banner.getPersistentDataContainer();
-                    if (!pdc.isEmpty()) {
-                        Map<String, Object> pdcData = serializePdc(pdc);
-                        bannerData.put("persistentData", pdcData);
+                    case RegionJournal.RECORD_LOCK -> {
+                        boolean journaledLock = dis.readBoolean();
+                        if (applyHeaderRecords) {
+                            locked = journaledLock;
+                        }
                     }
-                    bannerStates.put(location.clone(), bannerData);
-                } else if (state instanceof Sign) {
-                    Sign sign = (Sign) state;
-                    Map<String, Object> signData = new HashMap<>();
-                    List<String> lines = new ArrayList<>();
-                    for (int i = 0; i < 4; i++) {
-                        lines.add(sign.getLine(i));
+                    case RegionJournal.RECORD_MODIFIED -> {
+                        int x = dis.readInt();
+                        int y = dis.readInt();
+                        int z = dis.readInt();
+                        dis.readUTF();
+                        if (applyStateRecords) {
+                            setModified(x, y, z);
+                        }
+                    }
+                    case RegionJournal.RECORD_MODIFIED_POSITIONS -> {
+                        int count = dis.readInt();
+                        for (int i = 0; i < count; i++) {
+                            int x = dis.readInt();
+                            int y = dis.readInt();
+                            int z = dis.readInt();
+                            if (applyStateRecords) {
+                                setModified(x, y, z);
+                            }
+                        }
                     }
-                    signData.put("lines", lines);
-                    DyeColor color = sign.getColor();
-                    signData.put("color", color != null ? color.name() : "BLACK");
-                    signData.put("glowing", sign.isGlowingText());
-                    PersistentDataContainer pdc = sign.getPersistentDataContainer();
-                    if (!pdc.isEmpty()) {
-                        Map<String, Object> pdcData = serializePdc(pdc);
-                        signData.put("persistentData", pdcData);
+                    case RegionJournal.RECORD_MODIFIED_CLEAR -> {
+                        if (applyStateRecords) {
+                            synchronized (modifiedBlocks) {
+                                modifiedBlocks.clear();
+                            }
+                        }
                     }
-                    signStates.put(location.clone(), signData);
+                    default -> throw new IOException("Unknown journal record type " + type);
                 }
+            });
+            if (records > 0 && regionJournal.size() > plugin.journalCompactSize) {
+                plugin.markRegionDirty(file.getName().replace(".datc", ""));
             }
+        } catch (IOException e) {
+            LOGGER.warning("[ArenaRegen] Failed to replay journal for " + file.getName() + ": " + e.getMessage());
         }
     }
 
-    private boolean isBannerMaterial(Material mat) {
-        String name = mat.name();
-        return name.endsWith("_BANNER") || name.endsWith("_WALL_BANNER");
+    public Location getSpawnLocation() {
+        return spawnLocation != null ? spawnLocation.clone() : null;
     }
 
-    private boolean isSignMaterial(Material mat) {
-        String name = mat.name();
-        return name.endsWith("_SIGN") || name.endsWith("_WALL_SIGN") || name.endsWith("_HANGING_SIGN") || name.endsWith("_WALL_HANGING_SIGN");
+    private synchronized BlockVolume getOrCreateBlockVolume() {
+        if (blockVolume == null) {
+            setBlockVolume(new BlockVolume(minX, minY, minZ, width, height, depth));
+        }
+        return blockVolume;
     }
 
-    public void addSection(String sectionName, Map<Location, BlockData> blocks) {
-        Map<Location, BlockData> sectionBlocks = new ConcurrentHashMap<>();
-        World world = Bukkit.getWorld(worldName);
-        if (world == null) {
-            LOGGER.warning("[ArenaRegen] World '" + worldName + "' not found, cannot check for banners or signs in section " + sectionName);
-        }
-        for (Map.Entry<Location, BlockData> entry : blocks.entrySet()) {
-            Location location = entry.getKey();
-            BlockData blockData = entry.getValue();
-            if (blockData == null) {
-                LOGGER.warning("[ArenaRegen] Block data in section " + sectionName + " at " + location + " is null, replacing with air.");
-                blockData = getCachedBlockData("minecraft:air");
-            }
-            sectionBlocks.put(location, blockData);
-            if (world != null) {
-                BlockState state = world.getBlockAt(location).getState();
-                if (state instanceof Banner) {
-                    Banner banner = (Banner) state;
-                    Map<String, Object> bannerData = new HashMap<>();
-                    DyeColor baseColor = banner.getBaseColor();
-                    bannerData.put("baseColor", baseColor != null ? baseColor.name() : "NONE");
-                    List<Map<String, String>> patternDataList = new ArrayList<>();
-                    for (Pattern pattern : banner.getPatterns()) {
-                        Map<String, String> patternData = new HashMap<>();
-                        DyeColor color = pattern.getColor();
-                        patternData.put("color", color.name());
-                        String patternIdentifier = resolvePatternIdentifier(pattern);
-                        patternData.put("type", patternIdentifier);
-                        patternDataList.add(patternData);
-                    }
-                    bannerData.put("patterns", patternDataList);
-                    PersistentDataContainer pdc = banner.getPersistentDataContainer();
-                    if (!pdc.isEmpty()) {
-                        Map<String, Object> pdcData = serializePdc(pdc);
-                        bannerData.put("persistentData", pdcData);
-                    }
-                    bannerStates.put(location.clone(), bannerData);
+    public synchronized ResolvedPalette getResolvedPalette() {
+        if (resolvedPalette == null) {
+            resolvedPalette = NMSHandlerFactoryProvider.getNMSHandler().createPalette();
+        }
+        return resolvedPalette;
+    }
+
+    private synchronized void setBlockVolume(BlockVolume volume) {
+        BlockVolume previous = blockVolume;
+        if (volume != null) {
+            volume.retain();
+        }
+        blockVolume = volume;
+        volumeVersion.incrementAndGet();
+        if (previous != null && previous != volume) {
+            previous.release();
+        }
+    }
+
+    public void addBlock(World world, int x, int y, int z, BlockData blockData) {
+        getOrCreateBlockVolume().set(x, y, z, blockData);
+        volumeVersion.incrementAndGet();
+
+        if (hasTileState(blockData.getMaterial())) {
+            captureTileState(world, x, y, z);
+        }
+    }
+
+    public synchronized void addBlocks(BlockVolume blocks) {
+        getOrCreateBlockVolume().paste(blocks);
+        volumeVersion.incrementAndGet();
+    }
+
+    public boolean hasTileState(Material mat) {
+        return isBannerMaterial(mat) || isSignMaterial(mat);
+    }
+
+    public void captureTileState(World world, int x, int y, int z) {
+        if (world != null) {
+            Location location = new Location(world, x, y, z);
+            BlockState state = world.getBlockAt(x, y, z).getState();
+            if (state instanceof Banner) {
+                Banner banner = (Banner) state;
+                Map<String, Object> bannerData = new HashMap<>();
+                DyeColor baseColor = banner.getBaseColor();
+                bannerData.put("baseColor", baseColor != null ? baseColor.name() : "NONE");
+                List<Map<String, String>> patternDataList = new ArrayList<>();
+                for (Pattern pattern : banner.getPatterns()) {
+                    Map<String, String> patternData = new HashMap<>();
+                    DyeColor color = pattern.getColor();
+                    patternData.put("color", color.name());
+                    String patternIdentifier = resolvePatternIdentifier(pattern);
+                    patternData.put("type", patternIdentifier);
+                    patternDataList.add(patternData);
                 }
-                if (state instanceof Sign) {
-                    Sign sign = (Sign) state;
-                    Map<String, Object> signData = new HashMap<>();
-                    List<String> lines = new ArrayList<>();
-                    for (int i = 0; i < 4; i++) {
-                        lines.add(sign.getLine(i));
-                    }
-                    signData.put("lines", lines);
-                    DyeColor color = sign.getColor();
-                    signData.put("color", color != null ? color.name() : "BLACK");
-                    signData.put("glowing", sign.isGlowingText());
-                    PersistentDataContainer pdc = sign.getPersistentDataContainer();
-                    if (!pdc.isEmpty()) {
-                        Map<String, Object> pdcData = serializePdc(pdc);
-                        signData.put("persistentData", pdcData);
-                    }
-                    signStates.put(location.clone(), signData);
+                bannerData.put("patterns", patternDataList);
+                PersistentDataContainer pdc = banner.getPersistentDataContainer();
+                if (!pdc.isEmpty()) {
+                    Map<String, Object> pdcData = serializePdc(pdc);
+                    bannerData.put("persistentData", pdcData);
+                }
+                bannerStates.put(location.clone(), bannerData);
+            } else if (state instanceof Sign) {
+                Sign sign = (Sign) state;
+                Map<String, Object> signData = new HashMap<>();
+                List<String> lines = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    lines.add(sign.getLine(i));
+                }
+                signData.put("lines", lines);
+                DyeColor color = sign.getColor();
+                signData.put("color", color != null ? color.name() : "BLACK");
+                signData.put("glowing", sign.isGlowingText());
+                PersistentDataContainer pdc = sign.getPersistentDataContainer();
+                if (!pdc.isEmpty()) {
+                    Map<String, Object> pdcData = serializePdc(pdc);
+                    signData.put("persistentData", pdcData);
                 }
+                signStates.put(location.clone(), signData);
             }
+            tileStateVersion.incrementAndGet();
         }
-        sectionedBlockData.put(sectionName, sectionBlocks);
+    }
+
+    private boolean isBannerMaterial(Material mat) {
+        String name = mat.name();
+        return name.endsWith("_BANNER") || name.endsWith("_WALL_BANNER");
+    }
+
+    private boolean isSignMaterial(Material mat) {
+        String name = mat.name();
+        return name.endsWith("_SIGN") || name.endsWith("_WALL_SIGN") || name.endsWith("_HANGING_SIGN") || name.endsWith("_WALL_HANGING_SIGN");
     }
 
     private String resolvePatternIdentifier(Pattern pattern) {
@@ -320,26 +434,122 @@ public class RegionData {
         this.width = width;
         this.height = height;
         this.depth = depth;
+        synchronized (modifiedBlocks) {
+            modifiedBlocks.clear();
+            pendingModifiedCount = 0;
+        }
+        changeTrackingComplete = true;
         if (datcFile != null) {
             String regionName = datcFile.getName().replace(".datc", "");
             plugin.markRegionDirty(regionName);
         }
     }
 
-    public void markBlockModified(Location location, BlockData newBlockData) {
-        modifiedBlocks.put(location, newBlockData);
-        if (datcFile != null) {
-            String regionName = datcFile.getName().replace(".datc", "");
-            plugin.markRegionDirty(regionName);
+    public boolean contains(World world, int x, int y, int z) {
+        return world.getName().equals(worldName)
+                && x >= minX && x < minX + width
+                && y >= minY && y < minY + height
+                && z >= minZ && z < minZ + depth;
+    }
+
+    private int modifiedIndex(int x, int y, int z) {
+        if (x < minX || x >= minX + width || y < minY || y >= minY + height || z < minZ || z >= minZ + depth) {
+            return -1;
+        }
+        return ((y - minY) * depth + (z - minZ)) * width + (x - minX);
+    }
+
+    private boolean setModified(int x, int y, int z) {
+        int index = modifiedIndex(x, y, z);
+        if (index < 0) {
+            return false;
+        }
+        synchronized (modifiedBlocks) {
+            if (modifiedBlocks.get(index)) {
+                return false;
+            }
+            modifiedBlocks.set(index);
+            return true;
         }
     }
 
+    public void markBlockModified(Block block) {
+        markBlocksModified(List.of(block));
+    }
+
+    public void markBlocksModified(Collection<Block> blocks) {
+        synchronized (modifiedBlocks) {
+            for (Block block : blocks) {
+                if (setModified(block.getX(), block.getY(), block.getZ())) {
+                    queueModified(block.getX(), block.getY(), block.getZ());
+                }
+            }
+        }
+    }
+
+    private void queueModified(int x, int y, int z) {
+        int offset = pendingModifiedCount * 3;
+        if (offset + 3 > pendingModified.length) {
+            pendingModified = Arrays.copyOf(pendingModified, pendingModified.length * 2);
+        }
+        pendingModified[offset] = x;
+        pendingModified[offset + 1] = y;
+        pendingModified[offset + 2] = z;
+        pendingModifiedCount++;
+    }
+
     public void clearModifiedBlocks() {
-        modifiedBlocks.clear();
+        synchronized (journalLock) {
+            synchronized (modifiedBlocks) {
+                modifiedBlocks.clear();
+                pendingModifiedCount = 0;
+            }
+            writeJournal(RegionJournal.RECORD_MODIFIED_CLEAR, dos -> {});
+        }
+    }
+
+    public void clearModifiedBlocks(BitSet regenerated) {
+        synchronized (journalLock) {
+            synchronized (modifiedBlocks) {
+                modifiedBlocks.andNot(regenerated);
+                pendingModifiedCount = 0;
+                for (int index = modifiedBlocks.nextSetBit(0); index >= 0; index = modifiedBlocks.nextSetBit(index + 1)) {
+                    queueModified(minX + index % width, minY + index / (width * depth), minZ + (index / width) % depth);
+                }
+            }
+            writeJournal(RegionJournal.RECORD_MODIFIED_CLEAR, dos -> {});
+            appendPendingModified();
+        }
+    }
+
+    public Set<Long> getChunkKeys(BitSet positions) {
+        Set<Long> chunkKeys = new HashSet<>();
+        for (int index = positions.nextSetBit(0); index >= 0; index = positions.nextSetBit(index + 1)) {
+            int chunkX = (minX + index % width) >> 4;
+            int chunkZ = (minZ + (index / width) % depth) >> 4;
+            chunkKeys.add(((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL));
+        }
+        return chunkKeys;
+    }
+
+    public BitSet getModifiedBlocks() {
+        synchronized (modifiedBlocks) {
+            return (BitSet) modifiedBlocks.clone();
+        }
+    }
+
+    public boolean isChangeTrackingComplete() {
+        return changeTrackingComplete;
+    }
+
+    public void setChangeTrackingComplete(boolean changeTrackingComplete) {
+        this.changeTrackingComplete = changeTrackingComplete;
     }
 
-    public Map<Location, BlockData> getModifiedBlocks() {
-        return new HashMap<>(modifiedBlocks);
+    public int getModifiedBlockCount() {
+        synchronized (modifiedBlocks) {
+            return modifiedBlocks.cardinality();
+        }
     }
 
     public void addEntity(Location location, Map<String, Object> serializedEntity) {
@@ -360,6 +570,7 @@ public class RegionData {
 
     public void clearBanners() {
         bannerStates.clear();
+        tileStateVersion.incrementAndGet();
     }
 
     public Map<Location, Map<String, Object>> getSignStates() {
@@ -368,23 +579,60 @@ public class RegionData {
 
     public void clearSigns() {
         signStates.clear();
+        tileStateVersion.incrementAndGet();
+    }
+
+    public synchronized TileRestorePlan getTileRestorePlan() {
+        int version = tileStateVersion.get();
+        if (tileRestorePlan == null || tileRestorePlanVersion != version) {
+            tileRestorePlan = TileRestorePlan.compile(bannerStates, signStates);
+            tileRestorePlanVersion = version;
+        }
+        return tileRestorePlan;
     }
 
     public void clearRegion(String regionName) {
-        sectionedBlockData.clear();
+        setBlockVolume(null);
         entityDataMap.clear();
-        modifiedBlocks.clear();
+        synchronized (modifiedBlocks) {
+            modifiedBlocks.clear();
+            pendingModifiedCount = 0;
+        }
         bannerStates.clear();
         signStates.clear();
+        tileStateVersion.incrementAndGet();
         plugin.getPendingDeletions().remove(regionName);
         plugin.getRegisteredRegions().remove(regionName);
         plugin.regeneratingArenas.remove(regionName);
+        if (datcFile != null) {
+            try {
+                getJournal(datcFile).delete();
+            } catch (IOException e) {
+                LOGGER.warning("[ArenaRegen] Failed to delete journal for " + datcFile.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void detachJournal() {
+        File file;
+        synchronized (journalLock) {
+            file = datcFile;
+            datcFile = null;
+        }
+        if (file == null) {
+            return;
+        }
+        try {
+            getJournal(file).delete();
+        } catch (IOException e) {
+            LOGGER.warning("[ArenaRegen] Failed to delete journal for " + file.getName() + ": " + e.getMessage());
+        }
     }
 
     private int calculateBufferSize() {
-        long totalBlocks = sectionedBlockData.values().stream().mapToLong(Map::size).sum();
+        long totalBlocks = getBlockCount();
         long totalEntities = entityDataMap.size();
-        long totalModifiedBlocks = modifiedBlocks.size();
+        long totalModifiedBlocks = getModifiedBlockCount();
         long totalBanners = bannerStates.size();
         long totalSigns = signStates.size();
 
@@ -409,47 +657,71 @@ public class RegionData {
         int bufferSize = calculateBufferSize();
 
         
-        int sectionCount = sectionedBlockData.size();
-        long totalBlocks = sectionedBlockData.values().stream().mapToLong(Map::size).sum();
-        int entityCount = entityDataMap.size();
-        int bannerCount = bannerStates.size();
-        int signCount = signStates.size();
-        int modifiedCount = modifiedBlocks.size();
+        BlockVolume liveVolume = blockVolume;
+        BlockVolume volume = liveVolume != null ? liveVolume.copy() : null;
+        if (volume != null) {
+            volume.retain();
+        }
+        long totalBlocks = volume != null ? volume.getBlockCount() : 0;
+        Map<Location, Map<String, Object>> entities = new HashMap<>(entityDataMap);
+        Map<Location, Map<String, Object>> banners = new HashMap<>(bannerStates);
+        Map<Location, Map<String, Object>> signs = new HashMap<>(signStates);
+        int entityCount = entities.size();
+        int bannerCount = banners.size();
+        int signCount = signs.size();
+        BitSet modified = getModifiedBlocks();
+        int modifiedCount = modified.cardinality();
+        RegionJournal regionJournal = getJournal(datcFile);
+        long journalMark = regionJournal.size();
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
             File backupFile = new File(datcFile.getParent(), datcFile.getName() + ".bak");
                 if (datcFile.exists()) {
+                    if (backupFile.exists() && !backupFile.delete()) {
+                        throw new IOException("Could not remove stale backup " + backupFile.getName());
+                    }
                     if (!datcFile.renameTo(backupFile)) {
-                
+                        throw new IOException("Could not back up " + datcFile.getName() + " before saving");
                     }
             }
 
-            try (FileOutputStream fos = new FileOutputStream(datcFile);
-                 BufferedOutputStream bos = new BufferedOutputStream(fos, bufferSize);
-                     GZIPOutputStream gzip = new GZIPOutputStream(bos) {{ def.setLevel(GZIP_COMPRESSION_LEVEL); }};
-                 DataOutputStream dos = new DataOutputStream(gzip)) {
-
-                String header = fileFormatVersion + "," + creator + "," + creationDate + "," + worldName + "," +
-                        minecraftVersion + "," + minX + "," + minY + "," + minZ + "," +
-                        width + "," + height + "," + depth;
-                if (spawnLocation != null) {
-                    header += "," + spawnLocation.getX() + "," + spawnLocation.getY() + "," + spawnLocation.getZ() +
-                            "," + spawnLocation.getYaw() + "," + spawnLocation.getPitch();
-                } else {
-                    header += ",0,0,0,0,0";
-                }
-                header += "," + locked;
+            String header = buildHeaderLine();
+            List<Callable<DatcContainer.EncodedMember>> members = new ArrayList<>();
+            members.add(() -> DatcContainer.encode(DatcContainer.KIND_HEADER, 0, 0, 0, 0, GZIP_COMPRESSION_LEVEL, dos -> {
                 dos.writeBytes(header);
                 dos.writeByte('\n');
-
-                
-                writeSections(dos, sectionedBlockData);
-                writeEntities(dos, entityDataMap);
-                writeBanners(dos, bannerStates);
-                writeSigns(dos, signStates);
-                writeModifiedBlocks(dos, modifiedBlocks);
-                dos.flush();
+            }));
+            if (volume != null) {
+                for (BlockVolume.SectionBox box : volume.getSectionBoxes()) {
+                    members.add(() -> {
+                        int blockCount = volume.countBlocks(box);
+                        if (blockCount == 0) {
+                            return null;
+                        }
+                        return DatcContainer.encode(DatcContainer.KIND_SECTION, box.getSectionX(), box.getSectionY(), box.getSectionZ(),
+                                blockCount, GZIP_COMPRESSION_LEVEL, dos -> writePalettedSection(dos, volume, box, blockCount));
+                    });
+                }
+            }
+            members.add(() -> DatcContainer.encode(DatcContainer.KIND_ENTITIES, 0, 0, 0, entityCount, GZIP_COMPRESSION_LEVEL, dos -> writeEntities(dos, entities)));
+            members.add(() -> DatcContainer.encode(DatcContainer.KIND_BANNERS, 0, 0, 0, bannerCount, GZIP_COMPRESSION_LEVEL, dos -> writeBanners(dos, banners)));
+            members.add(() -> DatcContainer.encode(DatcContainer.KIND_SIGNS, 0, 0, 0, signCount, GZIP_COMPRESSION_LEVEL, dos -> writeSigns(dos, signs)));
+            members.add(() -> DatcContainer.encode(DatcContainer.KIND_MODIFIED, 0, 0, 0, modifiedCount, GZIP_COMPRESSION_LEVEL, dos -> writeModifiedBlocks(dos, modified, volume)));
+
+            AtomicInteger sectionCount = new AtomicInteger();
+            try (DatcContainer.Writer writer = new DatcContainer.Writer(datcFile, bufferSize)) {
+                runInOrder(members, member -> {
+                    if (member == null) {
+                        return;
+                    }
+                    writer.write(member);
+                    if (member.getKind() == DatcContainer.KIND_SECTION) {
+                        sectionCount.incrementAndGet();
+                    }
+                });
+                writer.finish();
+                fileFormatVersion = FILE_FORMAT_VERSION;
 
             } catch (IOException e) {
                 if (backupFile.exists()) {
@@ -460,10 +732,16 @@ public class RegionData {
                 return;
             }
 
+            try {
+                regionJournal.compact(journalMark);
+            } catch (IOException e) {
+                LOGGER.warning("[ArenaRegen] Failed to compact journal for " + datcFile.getName() + ": " + e.getMessage());
+            }
+
             long timeTaken = System.currentTimeMillis() - startTime;
             long fileSize = datcFile.length();
             LOGGER.info("[ArenaRegen] Saved RegionData to " + datcFile.getName() + ": " +
-                        sectionCount + " sections, " + totalBlocks + " total blocks, " +
+                        sectionCount.get() + " sections, " + totalBlocks + " total blocks, " +
                         entityCount + " entities, " + bannerCount + " banners, " + signCount + " signs, " +
                         modifiedCount + " modified blocks. " +
                     "File size: " + (fileSize / 1024) + " KB, Time: " + timeTaken + "ms");
@@ -471,63 +749,125 @@ public class RegionData {
             future.complete(null);
             } catch (Exception e) {
                 future.completeExceptionally(e);
+            } finally {
+                if (volume != null) {
+                    volume.release();
+                }
             }
         });
 
         return future;
     }
 
-    private void writeSections(DataOutputStream dos, Map<String, Map<Location, BlockData>> sectionedBlockDataCopy) throws IOException {
-        dos.writeInt(sectionedBlockDataCopy.size());
-        for (Map.Entry<String, Map<Location, BlockData>> entry : sectionedBlockDataCopy.entrySet()) {
-            String sectionName = entry.getKey();
-            Map<Location, BlockData> blocks = entry.getValue();
-
-            dos.writeUTF(sectionName);
-            dos.writeInt(blocks.size());
-            int batchSize = 1000;
-            int count = 0;
-            for (Map.Entry<Location, BlockData> blockEntry : blocks.entrySet()) {
-                Location loc = blockEntry.getKey();
-                BlockData blockData = blockEntry.getValue();
-                String blockDataStr = blockData != null ? blockData.getAsString() : "minecraft:air";
-                dos.writeInt(loc.getBlockX());
-                dos.writeInt(loc.getBlockY());
-                dos.writeInt(loc.getBlockZ());
-                dos.writeUTF(blockDataStr);
-                count++;
-                if (count % batchSize == 0) {
-                    dos.flush();
+    private interface OrderedSink<T> {
+        void accept(T value) throws IOException;
+    }
+
+    private <T> void runInOrder(List<Callable<T>> tasks, OrderedSink<T> sink) throws IOException {
+        ForkJoinPool pool = plugin.getWorkerPool();
+        int window = Math.max(2, pool.getParallelism() * 4);
+        ArrayDeque<CompletableFuture<T>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < tasks.size() || !inFlight.isEmpty()) {
+                while (next < tasks.size() && inFlight.size() < window) {
+                    Callable<T> task = tasks.get(next++);
+                    inFlight.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return task.call();
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    }, pool));
                 }
+                sink.accept(inFlight.poll().join());
             }
-            if (count % batchSize != 0) {
-                dos.flush();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException ioException) {
+                throw ioException;
             }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            for (CompletableFuture<T> future : inFlight) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private String buildHeaderLine() {
+        String header = FILE_FORMAT_VERSION + "," + creator + "," + creationDate + "," + worldName + "," +
+                minecraftVersion + "," + minX + "," + minY + "," + minZ + "," +
+                width + "," + height + "," + depth;
+        if (spawnLocation != null) {
+            header += "," + spawnLocation.getX() + "," + spawnLocation.getY() + "," + spawnLocation.getZ() +
+                    "," + spawnLocation.getYaw() + "," + spawnLocation.getPitch();
+        } else {
+            header += ",0,0,0,0,0";
         }
+        header += "," + locked;
+        return header;
     }
 
-    private static Object makeSerializable(Object obj) {
-        if (obj instanceof org.bukkit.util.Vector vector) {
-            return vector.serialize();
-        } else if (obj instanceof Map<?, ?> map) {
-            Map<Object, Object> newMap = new HashMap<>();
-            for (Map.Entry<?, ?> entry : map.entrySet()) {
-                newMap.put(entry.getKey(), makeSerializable(entry.getValue()));
+    private void writePalettedSection(DataOutputStream dos, BlockVolume volume, BlockVolume.SectionBox box, int blockCount) throws IOException {
+        dos.writeInt(blockCount);
+        if (blockCount == 0) {
+            return;
+        }
+
+        dos.writeInt(box.getMinX());
+        dos.writeInt(box.getMinY());
+        dos.writeInt(box.getMinZ());
+        dos.writeInt(box.getSizeX());
+        dos.writeInt(box.getSizeY());
+        dos.writeInt(box.getSizeZ());
+
+        int[] stateIds = volume.getPaletteIds();
+        int[] remap = new int[stateIds.length];
+        List<String> palette = new ArrayList<>();
+        int[] indices = new int[box.getSizeX() * box.getSizeY() * box.getSizeZ()];
+        int i = 0;
+        for (int y = box.getMinY(); y < box.getMinY() + box.getSizeY(); y++) {
+            for (int z = box.getMinZ(); z < box.getMinZ() + box.getSizeZ(); z++) {
+                int index = volume.index(box.getMinX(), y, z);
+                for (int x = 0; x < box.getSizeX(); x++, index++, i++) {
+                    int paletteIndex = volume.getPaletteIndex(index);
+                    if (paletteIndex != 0 && remap[paletteIndex] == 0) {
+                        palette.add(BlockStateRegistry.getString(stateIds[paletteIndex]));
+                        remap[paletteIndex] = palette.size();
+                    }
+                    indices[i] = remap[paletteIndex];
+                }
             }
-            return newMap;
-        } else if (obj instanceof List<?> list) {
-            List<Object> newList = new ArrayList<>();
-            for (Object item : list) {
-                newList.add(makeSerializable(item));
+        }
+
+        dos.writeInt(palette.size());
+        for (String blockDataStr : palette) {
+            dos.writeUTF(blockDataStr);
+        }
+
+        int bitsPerEntry = bitsForPalette(palette.size());
+        int entriesPerLong = 64 / bitsPerEntry;
+        dos.writeByte(bitsPerEntry);
+        dos.writeInt((indices.length + entriesPerLong - 1) / entriesPerLong);
+
+        long word = 0;
+        int slot = 0;
+        for (int value : indices) {
+            word |= (long) value << (slot * bitsPerEntry);
+            if (++slot == entriesPerLong) {
+                dos.writeLong(word);
+                word = 0;
+                slot = 0;
             }
-            return newList;
-        } else if (obj == null || obj instanceof String || obj instanceof Number || obj instanceof Boolean) {
-            return obj;
-        } else if (obj instanceof java.io.Serializable) {
-            return obj;
-        } else {
-            return null;
         }
+        if (slot > 0) {
+            dos.writeLong(word);
+        }
+    }
+
+    static int bitsForPalette(int paletteSize) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize));
     }
 
     private void writeEntities(DataOutputStream dos, Map<Location, Map<String, Object>> entityDataMapCopy) throws IOException {
@@ -542,25 +882,12 @@ public class RegionData {
             dos.writeDouble(loc.getY());
             dos.writeDouble(loc.getZ());
 
-            ByteArrayOutputStream entityStream = new ByteArrayOutputStream();
             byte[] entityDataBytes;
-            Object safeEntity = makeSerializable(serializedEntity);
-            try (ObjectOutputStream oos = new ObjectOutputStream(entityStream)) {
-                if (safeEntity instanceof java.io.Serializable) {
-                    oos.writeObject(safeEntity);
-                } else {
-                    oos.writeObject(new HashMap<>());
-                }
-                entityDataBytes = entityStream.toByteArray();
-            } catch (IOException e) {
+            try {
+                entityDataBytes = EntityCodec.encode(serializedEntity);
+            } catch (IOException | RuntimeException e) {
                 LOGGER.warning("[ArenaRegen] Skipping non-serializable entity at " + loc + ": " + e.getMessage());
-                entityStream = new ByteArrayOutputStream();
-                try (ObjectOutputStream oos2 = new ObjectOutputStream(entityStream)) {
-                    oos2.writeObject(new HashMap<>());
-                    entityDataBytes = entityStream.toByteArray();
-                } catch (IOException ex) {
-                    entityDataBytes = new byte[0];
-                }
+                entityDataBytes = EntityCodec.encode(new HashMap<>());
             }
             dos.writeInt(entityDataBytes.length);
             dos.write(entityDataBytes);
@@ -718,19 +1045,17 @@ public class RegionData {
         }
     }
 
-    private void writeModifiedBlocks(DataOutputStream dos, Map<Location, BlockData> modifiedBlocksCopy) throws IOException {
-        dos.writeInt(modifiedBlocksCopy.size());
+    private void writeModifiedBlocks(DataOutputStream dos, BitSet modifiedCopy, BlockVolume volume) throws IOException {
+        dos.writeInt(modifiedCopy.cardinality());
         int batchSize = 1000;
         int count = 0;
-        for (Map.Entry<Location, BlockData> entry : modifiedBlocksCopy.entrySet()) {
-            Location loc = entry.getKey();
-            BlockData blockData = entry.getValue();
-            String blockDataStr = blockData != null ? blockData.getAsString() : "minecraft:air";
+        for (int index = modifiedCopy.nextSetBit(0); index >= 0; index = modifiedCopy.nextSetBit(index + 1)) {
+            int stateId = volume != null && index < volume.size() ? volume.getStateId(volume.getPaletteIndex(index)) : BlockStateRegistry.EMPTY;
 
-            dos.writeInt(loc.getBlockX());
-            dos.writeInt(loc.getBlockY());
-            dos.writeInt(loc.getBlockZ());
-            dos.writeUTF(blockDataStr);
+            dos.writeInt(minX + index % width);
+            dos.writeInt(minY + index / (width * depth));
+            dos.writeInt(minZ + (index / width) % depth);
+            dos.writeUTF(BlockStateRegistry.getString(stateId));
 
             count++;
             if (count % batchSize == 0) {
@@ -745,104 +1070,362 @@ public class RegionData {
     public CompletableFuture<Void> loadFromDatc(File datcFile) {
         this.datcFile = datcFile;
         CompletableFuture<Void> future = new CompletableFuture<>();
+        BlockStateRegistry.beginUse();
+        BlockStateRegistry.track(future);
         long startTime = System.currentTimeMillis();
-        
+
         int bufferSize = datcFile.length() < 500_000 ? 8192 : (datcFile.length() < 5_000_000 ? 65536 : 262144);
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
-                try (FileInputStream fis = new FileInputStream(datcFile);
-                     BufferedInputStream bis = new BufferedInputStream(fis, bufferSize);
-                     GZIPInputStream gzip = new GZIPInputStream(bis);
-                     DataInputStream dis = new DataInputStream(gzip)) {
+                boolean loaded = DatcContainer.isContainer(datcFile) ? readContainer(datcFile) : readLegacyDatc(datcFile, bufferSize);
+                if (!loaded) {
+                    future.complete(null);
+                    return;
+                }
 
-                    String header = readHeader(dis);
-                    String[] headerParts = header.split(",");
-                    if (headerParts.length < 11) {
-                        throw new IOException("Invalid .datc file: Incomplete header");
-                    }
+                isBlockDataLoaded = true;
+                if (parseFormatVersion(fileFormatVersion) < DatcContainer.VERSION) {
+                    String regionName = datcFile.getName().replace(".datc", "");
+                    plugin.markRegionDirty(regionName);
+                }
+
+                long timeTaken = System.currentTimeMillis() - startTime;
+                long fileSize = datcFile.length();
+
+                LOGGER.info("[ArenaRegen] Loaded RegionData for file " + datcFile.getName() + ": " +
+                        getBlockCount() + " total blocks, " +
+                        entityDataMap.size() + " entities, " + bannerStates.size() + " banners, " + signStates.size() + " signs, " +
+                        getModifiedBlockCount() + " modified blocks. " +
+                        "Locked: " + locked + ", File size: " + (fileSize / 1024) + " KB, Time: " + timeTaken + "ms");
+
+                future.complete(null);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    private boolean readContainer(File datcFile) throws IOException {
+        try (DatcContainer.Reader reader = new DatcContainer.Reader(datcFile)) {
+            World world = readContainerHeader(reader, !headerLoaded);
+            if (world == null) {
+                return false;
+            }
+
+            BlockVolume volume = new BlockVolume(minX, minY, minZ, width, height, depth);
+            long skipped = readSectionsParallel(reader, reader.getEntries(DatcContainer.KIND_SECTION), volume);
+            if (skipped > 0) {
+                LOGGER.warning("[ArenaRegen] Skipped " + skipped + " blocks outside of the region bounds in " + datcFile.getName() + ".");
+            }
+            setBlockVolume(volume);
+            getResolvedPalette().resolve(volume.getPaletteIds());
+
+            readStateMembers(reader, world, datcFile);
+            return true;
+        }
+    }
+
+    private void readStateMembers(DatcContainer.Reader reader, World world, File datcFile) throws IOException {
+        entityDataMap.clear();
+        bannerStates.clear();
+        signStates.clear();
+        synchronized (modifiedBlocks) {
+            modifiedBlocks.clear();
+        }
+        int formatVersion = DatcContainer.VERSION;
+        List<DatcContainer.Entry> entries = new ArrayList<>();
+        List<Callable<byte[]>> tasks = new ArrayList<>();
+        for (DatcContainer.Entry entry : reader.getEntries()) {
+            if (entry.getKind() == DatcContainer.KIND_HEADER || entry.getKind() == DatcContainer.KIND_SECTION) {
+                continue;
+            }
+            entries.add(entry);
+            tasks.add(() -> reader.read(entry));
+        }
+        Iterator<DatcContainer.Entry> entryIterator = entries.iterator();
+        runInOrder(tasks, data -> {
+            DatcContainer.Entry entry = entryIterator.next();
+            try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data))) {
+                switch (entry.getKind()) {
+                    case DatcContainer.KIND_ENTITIES -> readEntities(dis, world);
+                    case DatcContainer.KIND_BANNERS -> readBanners(dis, world, formatVersion);
+                    case DatcContainer.KIND_SIGNS -> readSigns(dis, world, formatVersion);
+                    case DatcContainer.KIND_MODIFIED -> readModifiedBlocks(dis, world);
+                    default -> LOGGER.warning("[ArenaRegen] Unknown member type " + entry.getKind() + " in " + datcFile.getName() + ", skipping.");
+                }
+            }
+        });
+        replayJournal(datcFile, world, false, true);
+        tileStateVersion.incrementAndGet();
+        getTileRestorePlan();
+        stateDataLoaded = true;
+    }
+
+    public boolean canStreamBlockData() {
+        File file = datcFile;
+        try {
+            return file != null && file.exists() && DatcContainer.isContainer(file);
+        } catch (IOException e) {
+            return false;
+        }
+    }
 
-                    String fileVersion = headerParts[0];
-                    this.fileFormatVersion = fileVersion;
-                    if (!fileVersion.equals(FILE_FORMAT_VERSION)) {
-                        headerParts = migrateHeader(fileVersion, headerParts);
+    public synchronized CompletableFuture<Void> ensureStateDataLoaded() {
+        if (isBlockDataLoaded || stateDataLoaded) {
+            return CompletableFuture.completedFuture(null);
+        }
+        File file = datcFile;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        BlockStateRegistry.beginUse();
+        BlockStateRegistry.track(future);
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try (DatcContainer.Reader reader = new DatcContainer.Reader(file)) {
+                World world = Bukkit.getWorld(worldName);
+                if (world == null) {
+                    throw new IOException("World '" + worldName + "' not found for region in " + file.getName());
+                }
+                readStateMembers(reader, world, file);
+                future.complete(null);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    public BlockVolume readSection(DatcContainer.Reader reader, DatcContainer.Entry entry) throws IOException {
+        BlockVolume section = decodeSection(reader, entry, new LongAdder());
+        if (section == null) {
+            throw new IOException("Invalid .datc file: Section " + entry.getX() + "," + entry.getY() + "," + entry.getZ() + " is outside of the region bounds");
+        }
+        return section;
+    }
+
+    private long readSectionsParallel(DatcContainer.Reader reader, List<DatcContainer.Entry> entries, BlockVolume volume) throws IOException {
+        LongAdder skipped = new LongAdder();
+        List<Callable<BlockVolume>> tasks = new ArrayList<>(entries.size());
+        for (DatcContainer.Entry entry : entries) {
+            tasks.add(() -> decodeSection(reader, entry, skipped));
+        }
+        runInOrder(tasks, section -> {
+            if (section != null) {
+                volume.paste(section);
+            }
+        });
+        return skipped.sum();
+    }
+
+    private BlockVolume decodeSection(DatcContainer.Reader reader, DatcContainer.Entry entry, LongAdder skipped) throws IOException {
+        int x0 = Math.max(minX, entry.getX() << 4);
+        int y0 = Math.max(minY, entry.getY() << 4);
+        int z0 = Math.max(minZ, entry.getZ() << 4);
+        int x1 = Math.min(getMaxX(), (entry.getX() << 4) + 15);
+        int y1 = Math.min(getMaxY(), (entry.getY() << 4) + 15);
+        int z1 = Math.min(getMaxZ(), (entry.getZ() << 4) + 15);
+        if (x1 < x0 || y1 < y0 || z1 < z0) {
+            skipped.add(entry.getBlockCount());
+            return null;
+        }
+        BlockVolume section = new BlockVolume(x0, y0, z0, x1 - x0 + 1, y1 - y0 + 1, z1 - z0 + 1);
+        try (DataInputStream dis = reader.open(entry)) {
+            skipped.add(readPalettedSection(dis, section, entry.getX() + "," + entry.getY() + "," + entry.getZ()));
+        }
+        return section;
+    }
+
+    private World readContainerHeader(DatcContainer.Reader reader, boolean applyHeader) throws IOException {
+        DatcContainer.Entry headerEntry = reader.getEntry(DatcContainer.KIND_HEADER);
+        if (headerEntry == null) {
+            throw new IOException("Invalid .datc file: No header section found");
+        }
+        String[] headerParts;
+        try (DataInputStream dis = reader.open(headerEntry)) {
+            headerParts = readHeaderParts(dis);
+        }
+        if (applyHeader) {
+            applyHeader(headerParts);
+        }
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            LOGGER.warning("[ArenaRegen] World '" + worldName + "' not found for region in " + datcFile.getName() + ". Deferring block data loading.");
+            isBlockDataLoaded = false;
+            spawnLocation = null;
+            locked = false;
+            return null;
+        }
+
+        if (applyHeader) {
+            applySpawnAndLock(headerParts, world);
+            replayJournal(datcFile, world, true, false);
+            headerLoaded = true;
+        }
+        return world;
+    }
+
+    private boolean readLegacyDatc(File datcFile, int bufferSize) throws IOException {
+        try (FileInputStream fis = new FileInputStream(datcFile);
+             BufferedInputStream bis = new BufferedInputStream(fis, bufferSize);
+             GZIPInputStream gzip = new GZIPInputStream(bis);
+             DataInputStream dis = new DataInputStream(gzip)) {
+
+            String[] headerParts = readHeaderParts(dis);
+            int formatVersion = parseFormatVersion(fileFormatVersion);
+            boolean applyHeader = !headerLoaded;
+            if (applyHeader) {
+                applyHeader(headerParts);
+            }
+
+            World world = Bukkit.getWorld(worldName);
+            if (world == null) {
+                LOGGER.warning("[ArenaRegen] World '" + worldName + "' not found for region in " + datcFile.getName() + ". Deferring block data loading.");
+                isBlockDataLoaded = false;
+                spawnLocation = null;
+                locked = false;
+                return false;
+            }
+
+            if (applyHeader) {
+                applySpawnAndLock(headerParts, world);
+                headerLoaded = true;
+            }
+
+            readSections(dis, formatVersion);
+            readEntities(dis, world);
+            if (formatVersion >= 4) {
+                readBanners(dis, world, formatVersion);
+                readSigns(dis, world, formatVersion);
+            } else {
+                bannerStates.clear();
+                signStates.clear();
+            }
+            readModifiedBlocks(dis, world);
+            replayJournal(datcFile, world, applyHeader, true);
+            tileStateVersion.incrementAndGet();
+            getTileRestorePlan();
+            return true;
+        }
+    }
+
+    public CompletableFuture<Void> loadHeaderFromDatc(File datcFile) {
+        this.datcFile = datcFile;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                if (DatcContainer.isContainer(datcFile)) {
+                    try (DatcContainer.Reader reader = new DatcContainer.Reader(datcFile)) {
+                        readContainerHeader(reader, true);
                     }
+                    isBlockDataLoaded = false;
+                    future.complete(null);
+                    return;
+                }
 
-                    creator = headerParts[1];
-                    creationDate = Long.parseLong(headerParts[2]);
-                    worldName = headerParts[3];
-                    minecraftVersion = headerParts[4];
-                    minX = Integer.parseInt(headerParts[5]);
-                    minY = Integer.parseInt(headerParts[6]);
-                    minZ = Integer.parseInt(headerParts[7]);
-                    width = Integer.parseInt(headerParts[8]);
-                    height = Integer.parseInt(headerParts[9]);
-                    depth = Integer.parseInt(headerParts[10]);
+                try (FileInputStream fis = new FileInputStream(datcFile);
+                     BufferedInputStream bis = new BufferedInputStream(fis, 8192);
+                     GZIPInputStream gzip = new GZIPInputStream(bis);
+                     DataInputStream dis = new DataInputStream(gzip)) {
+
+                    String[] headerParts = readHeaderParts(dis);
+                    applyHeader(headerParts);
 
                     World world = Bukkit.getWorld(worldName);
                     if (world == null) {
                         LOGGER.warning("[ArenaRegen] World '" + worldName + "' not found for region in " + datcFile.getName() + ". Deferring block data loading.");
-                        isBlockDataLoaded = false;
                         spawnLocation = null;
                         locked = false;
-                        future.complete(null);
-                        return;
-                    }
-
-                    if (headerParts.length >= 16) {
-                        double spawnX = Double.parseDouble(headerParts[11]);
-                        double spawnY = Double.parseDouble(headerParts[12]);
-                        double spawnZ = Double.parseDouble(headerParts[13]);
-                        float spawnYaw = Float.parseFloat(headerParts[14]);
-                        float spawnPitch = Float.parseFloat(headerParts[15]);
-                        if (spawnX == 0 && spawnY == 0 && spawnZ == 0 && spawnYaw == 0 && spawnPitch == 0) {
-                            spawnLocation = null;
-                        } else {
-                            spawnLocation = new Location(world, spawnX, spawnY, spawnZ, spawnYaw, spawnPitch);
-                        }
-                        locked = Boolean.parseBoolean(headerParts[16]);
-                    } else if (headerParts.length >= 11) {
-                        double spawnX = headerParts.length > 11 ? Double.parseDouble(headerParts[11]) : 0;
-                        double spawnY = headerParts.length > 12 ? Double.parseDouble(headerParts[12]) : 0;
-                        double spawnZ = headerParts.length > 13 ? Double.parseDouble(headerParts[13]) : 0;
-                        float spawnYaw = headerParts.length > 14 ? Float.parseFloat(headerParts[14]) : 0;
-                        float spawnPitch = headerParts.length > 15 ? Float.parseFloat(headerParts[15]) : 0;
-                        if (spawnX == 0 && spawnY == 0 && spawnZ == 0 && spawnYaw == 0 && spawnPitch == 0) {
-                            spawnLocation = null;
-                        } else {
-                            spawnLocation = new Location(world, spawnX, spawnY, spawnZ, spawnYaw, spawnPitch);
-                        }
-                        locked = false;
                     } else {
-                        spawnLocation = null;
-                        locked = false;
+                        applySpawnAndLock(headerParts, world);
+                        replayJournal(datcFile, world, true, false);
+                        headerLoaded = true;
                     }
+                    isBlockDataLoaded = false;
+                    future.complete(null);
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
 
-                    readSections(dis, world);
-                    readEntities(dis, world);
-                    if (fileVersion.equals("4")) {
-                        readBanners(dis, world, fileVersion);
-                        readSigns(dis, world, fileVersion);
-                    } else {
-                        bannerStates.clear();
-                        signStates.clear();
+        return future;
+    }
+
+    public CompletableFuture<BlockVolume> loadChunks(Set<Long> chunkKeys) {
+        File file = datcFile;
+        CompletableFuture<BlockVolume> future = new CompletableFuture<>();
+        BlockStateRegistry.beginUse();
+        BlockStateRegistry.track(future);
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                if (isBlockDataLoaded || file == null || !file.exists() || !DatcContainer.isContainer(file)) {
+                    ensureBlockDataLoaded().thenAccept(v -> future.complete(blockVolume))
+                            .exceptionally(e -> {
+                                future.completeExceptionally(e);
+                                return null;
+                            });
+                    return;
+                }
+
+                try (DatcContainer.Reader reader = new DatcContainer.Reader(file)) {
+                    BlockVolume volume = new BlockVolume(minX, minY, minZ, width, height, depth);
+                    List<DatcContainer.Entry> entries = new ArrayList<>();
+                    for (DatcContainer.Entry entry : reader.getEntries(DatcContainer.KIND_SECTION)) {
+                        if (chunkKeys.contains(entry.getChunkKey())) {
+                            entries.add(entry);
+                        }
                     }
-                    readModifiedBlocks(dis, world);
+                    readSectionsParallel(reader, entries, volume);
+                    future.complete(volume);
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
 
-                    isBlockDataLoaded = true;
+        return future;
+    }
 
-                    long timeTaken = System.currentTimeMillis() - startTime;
-                    long fileSize = datcFile.length();
-                    
-                    long totalBlocks = sectionedBlockData.values().stream().mapToLong(Map::size).sum();
-                    LOGGER.info("[ArenaRegen] Loaded RegionData for file " + datcFile.getName() + ": " +
-                            sectionedBlockData.size() + " sections, " + totalBlocks + " total blocks, " +
-                            entityDataMap.size() + " entities, " + bannerStates.size() + " banners, " + signStates.size() + " signs, " +
-                            modifiedBlocks.size() + " modified blocks. " +
-                            "Locked: " + locked + ", File size: " + (fileSize / 1024) + " KB, Time: " + timeTaken + "ms");
+    public CompletableFuture<long[]> getSectionStats() {
+        File file = datcFile;
+        CompletableFuture<long[]> future = new CompletableFuture<>();
 
-                    future.complete(null);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                if (!isBlockDataLoaded && file != null && file.exists() && DatcContainer.isContainer(file)) {
+                    try (DatcContainer.Reader reader = new DatcContainer.Reader(file)) {
+                        long sections = 0;
+                        long blocks = 0;
+                        for (DatcContainer.Entry entry : reader.getEntries(DatcContainer.KIND_SECTION)) {
+                            sections++;
+                            blocks += entry.getBlockCount();
+                        }
+                        future.complete(new long[] { sections, blocks });
+                    }
+                    return;
                 }
+
+                ensureBlockDataLoaded().thenAccept(v -> {
+                    BlockVolume volume = blockVolume;
+                    long sections = 0;
+                    if (volume != null) {
+                        for (BlockVolume.SectionBox box : volume.getSectionBoxes()) {
+                            if (volume.countBlocks(box) > 0) {
+                                sections++;
+                            }
+                        }
+                    }
+                    future.complete(new long[] { sections, getBlockCount() });
+                }).exceptionally(e -> {
+                    future.completeExceptionally(e);
+                    return null;
+                });
             } catch (Exception e) {
                 future.completeExceptionally(e);
             }
@@ -851,6 +1434,66 @@ public class RegionData {
         return future;
     }
 
+    private String[] readHeaderParts(DataInputStream dis) throws IOException {
+        String header = readHeader(dis);
+        String[] headerParts = header.split(",");
+        if (headerParts.length < 11) {
+            throw new IOException("Invalid .datc file: Incomplete header");
+        }
+
+        String fileVersion = headerParts[0];
+        this.fileFormatVersion = fileVersion;
+        parseFormatVersion(fileVersion);
+        if (!fileVersion.equals(FILE_FORMAT_VERSION)) {
+            headerParts = migrateHeader(fileVersion, headerParts);
+        }
+        return headerParts;
+    }
+
+    private void applyHeader(String[] headerParts) {
+        creator = headerParts[1];
+        creationDate = Long.parseLong(headerParts[2]);
+        worldName = headerParts[3];
+        minecraftVersion = headerParts[4];
+        minX = Integer.parseInt(headerParts[5]);
+        minY = Integer.parseInt(headerParts[6]);
+        minZ = Integer.parseInt(headerParts[7]);
+        width = Integer.parseInt(headerParts[8]);
+        height = Integer.parseInt(headerParts[9]);
+        depth = Integer.parseInt(headerParts[10]);
+    }
+
+    private void applySpawnAndLock(String[] headerParts, World world) {
+        if (headerParts.length >= 16) {
+            double spawnX = Double.parseDouble(headerParts[11]);
+            double spawnY = Double.parseDouble(headerParts[12]);
+            double spawnZ = Double.parseDouble(headerParts[13]);
+            float spawnYaw = Float.parseFloat(headerParts[14]);
+            float spawnPitch = Float.parseFloat(headerParts[15]);
+            if (spawnX == 0 && spawnY == 0 && spawnZ == 0 && spawnYaw == 0 && spawnPitch == 0) {
+                spawnLocation = null;
+            } else {
+                spawnLocation = new Location(world, spawnX, spawnY, spawnZ, spawnYaw, spawnPitch);
+            }
+            locked = Boolean.parseBoolean(headerParts[16]);
+        } else if (headerParts.length >= 11) {
+            double spawnX = headerParts.length > 11 ? Double.parseDouble(headerParts[11]) : 0;
+            double spawnY = headerParts.length > 12 ? Double.parseDouble(headerParts[12]) : 0;
+            double spawnZ = headerParts.length > 13 ? Double.parseDouble(headerParts[13]) : 0;
+            float spawnYaw = headerParts.length > 14 ? Float.parseFloat(headerParts[14]) : 0;
+            float spawnPitch = headerParts.length > 15 ? Float.parseFloat(headerParts[15]) : 0;
+            if (spawnX == 0 && spawnY == 0 && spawnZ == 0 && spawnYaw == 0 && spawnPitch == 0) {
+                spawnLocation = null;
+            } else {
+                spawnLocation = new Location(world, spawnX, spawnY, spawnZ, spawnYaw, spawnPitch);
+            }
+            locked = false;
+        } else {
+            spawnLocation = null;
+            locked = false;
+        }
+    }
+
     private String readHeader(DataInputStream dis) throws IOException {
         StringBuilder headerBuilder = new StringBuilder();
         int b;
@@ -861,6 +1504,14 @@ public class RegionData {
         return headerBuilder.toString();
     }
 
+    private int parseFormatVersion(String fileVersion) throws IOException {
+        try {
+            return Integer.parseInt(fileVersion.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Unsupported .datc file version: " + fileVersion);
+        }
+    }
+
     private String[] migrateHeader(String fileVersion, String[] headerParts) throws IOException {
         if (fileVersion.equals("1") || fileVersion.equals("2") || fileVersion.equals("3")) {
             LOGGER.info("[ArenaRegen] Migrating file format version '" + fileVersion + "' to version " + FILE_FORMAT_VERSION + ".");
@@ -882,36 +1533,133 @@ public class RegionData {
             newHeader[0] = FILE_FORMAT_VERSION;
             return newHeader;
         }
+        if (fileVersion.equals("4") || fileVersion.equals("5")) {
+            LOGGER.info("[ArenaRegen] Migrating file format version '" + fileVersion + "' to version " + FILE_FORMAT_VERSION + ".");
+            String[] newHeader = Arrays.copyOf(headerParts, Math.max(headerParts.length, 17));
+            if (headerParts.length < 17) {
+                newHeader[16] = "false";
+            }
+            newHeader[0] = FILE_FORMAT_VERSION;
+            return newHeader;
+        }
         throw new IOException("Unsupported .datc file version: " + fileVersion);
     }
 
-    private void readSections(DataInputStream dis, World world) throws IOException {
+    private void readSections(DataInputStream dis, int formatVersion) throws IOException {
         int sectionCount = dis.readInt();
-        sectionedBlockData.clear();
+        BlockVolume volume = new BlockVolume(minX, minY, minZ, width, height, depth);
+        long skipped = 0;
 
         for (int i = 0; i < sectionCount; i++) {
             String sectionName = dis.readUTF();
-            int blockCount = dis.readInt();
-            Map<Location, BlockData> blocks = new ConcurrentHashMap<>();
+            if (formatVersion >= PALETTED_SECTIONS_VERSION) {
+                skipped += readPalettedSection(dis, volume, sectionName);
+            } else {
+                skipped += readLegacySection(dis, volume, sectionName);
+            }
+        }
+        if (skipped > 0) {
+            LOGGER.warning("[ArenaRegen] Skipped " + skipped + " blocks outside of the region bounds in " + datcFile.getName() + ".");
+        }
+        setBlockVolume(volume);
+        getResolvedPalette().resolve(volume.getPaletteIds());
+    }
 
-            for (int j = 0; j < blockCount; j++) {
-                int x = dis.readInt();
-                int y = dis.readInt();
-                int z = dis.readInt();
-                String blockDataStr = dis.readUTF();
+    private int readPalettedSection(DataInputStream dis, BlockVolume volume, String sectionName) throws IOException {
+        int blockCount = dis.readInt();
+        if (blockCount == 0) {
+            return 0;
+        }
 
-                Location loc = new Location(world, x, y, z);
-                try {
-                    
-                    BlockData blockData = getCachedBlockData(blockDataStr);
-                    blocks.put(loc, blockData);
-                } catch (IllegalArgumentException e) {
-                    LOGGER.warning("[ArenaRegen] Invalid block data '" + blockDataStr + "' at " + loc + " in section " + sectionName + ": " + e.getMessage() + ", replacing with air.");
-                    blocks.put(loc, getCachedBlockData("minecraft:air"));
+        int sMinX = dis.readInt();
+        int sMinY = dis.readInt();
+        int sMinZ = dis.readInt();
+        int sizeX = dis.readInt();
+        int sizeY = dis.readInt();
+        int sizeZ = dis.readInt();
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0 || (long) sizeX * sizeY * sizeZ > Integer.MAX_VALUE - 8) {
+            throw new IOException("Invalid .datc file: Bad bounds for section " + sectionName);
+        }
+
+        int paletteSize = dis.readInt();
+        int[] paletteMapping = new int[paletteSize + 1];
+        for (int p = 1; p <= paletteSize; p++) {
+            String blockDataStr = dis.readUTF();
+            int stateId;
+            try {
+                stateId = BlockStateRegistry.getId(blockDataStr);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("[ArenaRegen] Invalid block data '" + blockDataStr + "' in section " + sectionName + ": " + e.getMessage() + ", replacing with air.");
+                stateId = BlockStateRegistry.getId("minecraft:air");
+            }
+            paletteMapping[p] = volume.addStateToPalette(stateId);
+        }
+
+        int bitsPerEntry = dis.readUnsignedByte();
+        int longCount = dis.readInt();
+        if (bitsPerEntry < bitsForPalette(paletteSize) || bitsPerEntry > 32) {
+            throw new IOException("Invalid .datc file: Bad palette width " + bitsPerEntry + " for section " + sectionName);
+        }
+        int entriesPerLong = 64 / bitsPerEntry;
+        if ((long) longCount * entriesPerLong < (long) sizeX * sizeY * sizeZ) {
+            throw new IOException("Invalid .datc file: Truncated block data for section " + sectionName);
+        }
+        long mask = (1L << bitsPerEntry) - 1;
+
+        int skipped = 0;
+        long word = 0;
+        int slot = entriesPerLong;
+        for (int y = sMinY; y < sMinY + sizeY; y++) {
+            for (int z = sMinZ; z < sMinZ + sizeZ; z++) {
+                for (int x = sMinX; x < sMinX + sizeX; x++) {
+                    if (slot == entriesPerLong) {
+                        word = dis.readLong();
+                        longCount--;
+                        slot = 0;
+                    }
+                    int paletteIndex = (int) ((word >>> (slot * bitsPerEntry)) & mask);
+                    slot++;
+                    if (paletteIndex == 0) {
+                        continue;
+                    }
+                    if (paletteIndex > paletteSize) {
+                        throw new IOException("Invalid .datc file: Palette index " + paletteIndex + " out of range in section " + sectionName);
+                    }
+                    if (!volume.contains(x, y, z)) {
+                        skipped++;
+                        continue;
+                    }
+                    volume.setPaletteIndex(volume.index(x, y, z), paletteMapping[paletteIndex]);
                 }
             }
-            sectionedBlockData.put(sectionName, blocks);
         }
+        for (; longCount > 0; longCount--) {
+            dis.readLong();
+        }
+        return skipped;
+    }
+
+    private int readLegacySection(DataInputStream dis, BlockVolume volume, String sectionName) throws IOException {
+        int blockCount = dis.readInt();
+        int skipped = 0;
+        for (int j = 0; j < blockCount; j++) {
+            int x = dis.readInt();
+            int y = dis.readInt();
+            int z = dis.readInt();
+            String blockDataStr = dis.readUTF();
+
+            if (!volume.contains(x, y, z)) {
+                skipped++;
+                continue;
+            }
+            try {
+                volume.set(x, y, z, BlockStateRegistry.getBlockData(blockDataStr));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("[ArenaRegen] Invalid block data '" + blockDataStr + "' at " + x + ", " + y + ", " + z + " in section " + sectionName + ": " + e.getMessage() + ", replacing with air.");
+                volume.set(x, y, z, BlockStateRegistry.getBlockData("minecraft:air"));
+            }
+        }
+        return skipped;
     }
 
     private void readEntities(DataInputStream dis, World world) throws IOException {
@@ -927,18 +1675,14 @@ public class RegionData {
 
             Location loc = new Location(world, x, y, z);
             try {
-                ByteArrayInputStream entityStream = new ByteArrayInputStream(entityDataBytes);
-                try (ObjectInputStream ois = new ObjectInputStream(entityStream)) {
-                    Map<String, Object> serializedEntity = (Map<String, Object>) ois.readObject();
-                    entityDataMap.put(loc, serializedEntity);
-                }
+                entityDataMap.put(loc, EntityCodec.decode(entityDataBytes));
             } catch (Exception e) {
                 LOGGER.warning("[ArenaRegen] Failed to deserialize entity data at " + loc + ": " + e.getMessage() + ", skipping.");
             }
         }
     }
 
-    private void readBanners(DataInputStream dis, World world, String fileVersion) throws IOException {
+    private void readBanners(DataInputStream dis, World world, int formatVersion) throws IOException {
         bannerStates.clear();
         int bannerCount = dis.readInt();
         for (int i = 0; i < bannerCount; i++) {
@@ -948,7 +1692,7 @@ public class RegionData {
             Location loc = new Location(world, x, y, z);
             Map<String, Object> bannerData = new HashMap<>();
 
-            if (!fileVersion.equals(FILE_FORMAT_VERSION)) {
+            if (formatVersion < 4) {
                 if (bannerCount > 0) {
                     dis.readByte();
                     byte patternCount = dis.readByte();
@@ -1042,7 +1786,7 @@ public class RegionData {
         }
     }
 
-    private void readSigns(DataInputStream dis, World world, String fileVersion) throws IOException {
+    private void readSigns(DataInputStream dis, World world, int formatVersion) throws IOException {
         signStates.clear();
         int signCount = dis.readInt();
         for (int i = 0; i < signCount; i++) {
@@ -1052,7 +1796,7 @@ public class RegionData {
             Location loc = new Location(world, x, y, z);
             Map<String, Object> signData = new HashMap<>();
 
-            if (!fileVersion.equals(FILE_FORMAT_VERSION)) {
+            if (formatVersion < 4) {
                 if (signCount > 0) {
                     byte lineCount = dis.readByte();
                     for (int j = 0; j < lineCount; j++) {
@@ -1146,21 +1890,15 @@ public class RegionData {
 
     private void readModifiedBlocks(DataInputStream dis, World world) throws IOException {
         int modifiedCount = dis.readInt();
-        modifiedBlocks.clear();
+        synchronized (modifiedBlocks) {
+            modifiedBlocks.clear();
+        }
         for (int i = 0; i < modifiedCount; i++) {
             int x = dis.readInt();
             int y = dis.readInt();
             int z = dis.readInt();
-            String blockDataStr = dis.readUTF();
-
-            Location loc = new Location(world, x, y, z);
-            try {
-                
-                BlockData blockData = getCachedBlockData(blockDataStr);
-                modifiedBlocks.put(loc, blockData);
-            } catch (IllegalArgumentException e) {
-                LOGGER.warning("[ArenaRegen] Invalid block data '" + blockDataStr + "' for modified block at " + loc + ": " + e.getMessage() + ", skipping.");
-            }
+            dis.readUTF();
+            setModified(x, y, z);
         }
     }
 
@@ -1177,7 +1915,7 @@ public class RegionData {
                 throw new RuntimeException("Recursive loading detected for region in " + (datcFile != null ? datcFile.getName() : "unknown file"));
             }
 
-            if (!sectionedBlockData.isEmpty()) {
+            if (getBlockCount() > 0) {
                 isBlockDataLoaded = true;
                 return;
             }
@@ -1230,20 +1968,48 @@ public class RegionData {
         return blockDataLoadFuture;
     }
 
-    public CompletableFuture<Map<String, Map<Location, BlockData>>> getSectionedBlockData() {
-        return ensureBlockDataLoaded().thenApply(v -> sectionedBlockData);
+    public CompletableFuture<BlockVolume> getBlockVolume() {
+        return ensureBlockDataLoaded().thenApply(v -> blockVolume);
+    }
+
+    public CompletableFuture<RegenPlan> getRegenPlan() {
+        return ensureBlockDataLoaded().thenApplyAsync(v -> {
+            BlockVolume volume = blockVolume;
+            if (volume == null || volume.isEmpty()) {
+                return null;
+            }
+            int version = volumeVersion.get();
+            synchronized (this) {
+                if (regenPlan != null && regenPlan.getVolume() == volume && regenPlanVersion == version) {
+                    return regenPlan;
+                }
+            }
+            RegenPlan plan = RegenPlan.compile(volume);
+            synchronized (this) {
+                regenPlan = plan;
+                regenPlanVersion = version;
+            }
+            return plan;
+        }, plugin.getWorkerPool());
     }
 
     public CompletableFuture<Map<Location, BlockData>> getAllBlocks() {
         return ensureBlockDataLoaded().thenApply(v -> {
-            Map<Location, BlockData> allBlocks = new ConcurrentHashMap<>();
-            for (Map.Entry<String, Map<Location, BlockData>> entry : sectionedBlockData.entrySet()) {
-                allBlocks.putAll(entry.getValue());
+            Map<Location, BlockData> allBlocks = new HashMap<>();
+            BlockVolume volume = blockVolume;
+            if (volume != null) {
+                World world = Bukkit.getWorld(worldName);
+                volume.forEach((x, y, z, blockData) -> allBlocks.put(new Location(world, x, y, z), blockData));
             }
             return allBlocks;
         });
     }
 
+    public long getBlockCount() {
+        BlockVolume volume = blockVolume;
+        return volume != null ? volume.getBlockCount() : 0;
+    }
+
     public boolean isLocked() {
         return locked;
     }
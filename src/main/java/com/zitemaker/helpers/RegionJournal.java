@@ -0,0 +1,155 @@
+package com.zitemaker.helpers;
+
+import com.zitemaker.ArenaRegen;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+public class RegionJournal {
+    private static final Logger LOGGER = JavaPlugin.getPlugin(ArenaRegen.class).getLogger();
+
+    public static final byte RECORD_SPAWN = 1;
+    public static final byte RECORD_LOCK = 2;
+    public static final byte RECORD_MODIFIED = 3;
+    public static final byte RECORD_MODIFIED_CLEAR = 4;
+    public static final byte RECORD_MODIFIED_POSITIONS = 5;
+
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private final File file;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final Object ioLock = new Object();
+
+    public RegionJournal(File datcFile) {
+        this.file = fileFor(datcFile);
+    }
+
+    public static File fileFor(File datcFile) {
+        return new File(datcFile.getParentFile(), datcFile.getName() + ".journal");
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(byte type, DataInputStream dis) throws IOException;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long size() {
+        return file.length();
+    }
+
+    public synchronized void append(byte type, DatcContainer.MemberWriter writer) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(payload)) {
+            dos.writeByte(type);
+            writer.write(dos);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        DataOutputStream out = new DataOutputStream(pending);
+        out.writeInt(bytes.length);
+        out.writeInt((int) crc.getValue());
+        out.write(bytes);
+    }
+
+    public void flush() throws IOException {
+        synchronized (ioLock) {
+            byte[] bytes;
+            synchronized (this) {
+                if (pending.size() == 0) {
+                    return;
+                }
+                bytes = pending.toByteArray();
+                pending.reset();
+            }
+            try (FileOutputStream out = new FileOutputStream(file, true)) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    public int replay(RecordHandler handler) throws IOException {
+        synchronized (ioLock) {
+            if (!file.exists()) {
+                return 0;
+            }
+            int records = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (length <= 0 || length > MAX_RECORD_SIZE) {
+                        LOGGER.warning("[ArenaRegen] Journal " + file.getName() + " has an invalid record length " + length + ", ignoring the rest of the journal.");
+                        break;
+                    }
+                    byte[] bytes = new byte[length];
+                    int checksum;
+                    try {
+                        checksum = in.readInt();
+                        in.readFully(bytes);
+                    } catch (EOFException e) {
+                        LOGGER.warning("[ArenaRegen] Journal " + file.getName() + " ends with an incomplete record, ignoring it.");
+                        break;
+                    }
+                    CRC32 crc = new CRC32();
+                    crc.update(bytes);
+                    if ((int) crc.getValue() != checksum) {
+                        LOGGER.warning("[ArenaRegen] Journal " + file.getName() + " has a corrupt record, ignoring the rest of the journal.");
+                        break;
+                    }
+                    try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                        handler.handle(dis.readByte(), dis);
+                    }
+                    records++;
+                }
+            }
+            return records;
+        }
+    }
+
+    public void compact(long mark) throws IOException {
+        synchronized (ioLock) {
+            if (!file.exists()) {
+                return;
+            }
+            long length = file.length();
+            if (length <= mark) {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            File tail = new File(file.getParentFile(), file.getName() + ".tmp");
+            try (RandomAccessFile source = new RandomAccessFile(file, "r");
+                 FileOutputStream out = new FileOutputStream(tail)) {
+                source.seek(mark);
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = source.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+            }
+            Files.move(tail.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public void delete() throws IOException {
+        synchronized (ioLock) {
+            synchronized (this) {
+                pending.reset();
+            }
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
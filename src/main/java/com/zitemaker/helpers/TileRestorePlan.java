@@ -0,0 +1,260 @@
+package com.zitemaker.helpers;
+
+import com.zitemaker.ArenaRegen;
+import org.bukkit.Bukkit;
+import org.bukkit.DyeColor;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Banner;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Sign;
+import org.bukkit.block.TileState;
+import org.bukkit.block.banner.Pattern;
+import org.bukkit.block.banner.PatternType;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+public class TileRestorePlan {
+    private static final Logger LOGGER = JavaPlugin.getPlugin(ArenaRegen.class).getLogger();
+
+    private final List<TileRestore> restores;
+
+    private TileRestorePlan(List<TileRestore> restores) {
+        this.restores = restores;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static TileRestorePlan compile(Map<Location, Map<String, Object>> bannerStates,
+            Map<Location, Map<String, Object>> signStates) {
+        List<TileRestore> restores = new ArrayList<>(bannerStates.size() + signStates.size());
+
+        for (Map.Entry<Location, Map<String, Object>> entry : bannerStates.entrySet()) {
+            Location loc = entry.getKey();
+            Map<String, Object> bannerData = entry.getValue();
+            try {
+                String baseColorStr = (String) bannerData.get("baseColor");
+                DyeColor baseColor = baseColorStr == null || baseColorStr.equals("NONE") ? null
+                        : DyeColor.valueOf(baseColorStr);
+
+                List<Pattern> patterns = null;
+                List<Map<String, String>> patternDataList = (List<Map<String, String>>) bannerData.get("patterns");
+                if (patternDataList != null && !patternDataList.isEmpty()) {
+                    patterns = new ArrayList<>(patternDataList.size());
+                    for (Map<String, String> patternData : patternDataList) {
+                        DyeColor color = DyeColor.valueOf(patternData.get("color"));
+                        String typeStr = patternData.get("type");
+                        PatternType patternType = Bukkit.getRegistry(PatternType.class)
+                                .get(new NamespacedKey("minecraft", typeStr));
+                        if (patternType == null) {
+                            LOGGER.warning("[ArenaRegen] Invalid pattern type '" + typeStr + "' for banner at " + loc
+                                    + ", defaulting to base.");
+                            patternType = PatternType.BASE;
+                        }
+                        patterns.add(new Pattern(color, patternType));
+                    }
+                }
+
+                restores.add(new BannerRestore(loc, compilePdc(bannerData, loc), baseColor, patterns));
+            } catch (Exception e) {
+                LOGGER.warning("[ArenaRegen] Failed to compile banner at " + loc + ": " + e.getMessage());
+            }
+        }
+
+        for (Map.Entry<Location, Map<String, Object>> entry : signStates.entrySet()) {
+            Location loc = entry.getKey();
+            Map<String, Object> signData = entry.getValue();
+            try {
+                List<String> lines = (List<String>) signData.get("lines");
+                String[] signLines = lines != null
+                        ? lines.subList(0, Math.min(lines.size(), 4)).toArray(new String[0])
+                        : new String[0];
+
+                String colorStr = (String) signData.get("color");
+                DyeColor color = DyeColor.BLACK;
+                try {
+                    color = DyeColor.valueOf(colorStr);
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    LOGGER.warning("[ArenaRegen] Invalid color '" + colorStr + "' for sign at " + loc
+                            + ", defaulting to BLACK.");
+                }
+                boolean glowing = (boolean) signData.getOrDefault("glowing", false);
+
+                restores.add(new SignRestore(loc, compilePdc(signData, loc), signLines, color, glowing));
+            } catch (Exception e) {
+                LOGGER.warning("[ArenaRegen] Failed to compile sign at " + loc + ": " + e.getMessage());
+            }
+        }
+
+        return new TileRestorePlan(Collections.unmodifiableList(restores));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PdcEntry<?>> compilePdc(Map<String, Object> data, Location loc) {
+        Map<String, Object> pdcData = (Map<String, Object>) data.get("persistentData");
+        if (pdcData == null || pdcData.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PdcEntry<?>> entries = new ArrayList<>(pdcData.size());
+        for (Map.Entry<String, Object> pdcEntry : pdcData.entrySet()) {
+            NamespacedKey key = NamespacedKey.fromString(pdcEntry.getKey());
+            if (key == null) {
+                LOGGER.warning("[ArenaRegen] Invalid NamespacedKey '" + pdcEntry.getKey() + "' at " + loc
+                        + ", skipping PDC entry.");
+                continue;
+            }
+            Object value = pdcEntry.getValue();
+            if (value instanceof String s) {
+                entries.add(new PdcEntry<>(key, PersistentDataType.STRING, s));
+            } else if (value instanceof Integer i) {
+                entries.add(new PdcEntry<>(key, PersistentDataType.INTEGER, i));
+            } else if (value instanceof Double d) {
+                entries.add(new PdcEntry<>(key, PersistentDataType.DOUBLE, d));
+            } else if (value instanceof Byte b) {
+                entries.add(new PdcEntry<>(key, PersistentDataType.BYTE, b));
+            } else if (value instanceof Long l) {
+                entries.add(new PdcEntry<>(key, PersistentDataType.LONG, l));
+            } else {
+                LOGGER.warning("[ArenaRegen] Unsupported PDC value type for key " + key + " at " + loc + ", skipping.");
+            }
+        }
+        return entries;
+    }
+
+    public int size() {
+        return restores.size();
+    }
+
+    public int apply(World world, int from, long deadline) {
+        int index = from;
+        while (index < restores.size()) {
+            restores.get(index++).apply(world);
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        return index;
+    }
+
+    private static final class PdcEntry<T> {
+        private final NamespacedKey key;
+        private final PersistentDataType<T, T> type;
+        private final T value;
+
+        PdcEntry(NamespacedKey key, PersistentDataType<T, T> type, T value) {
+            this.key = key;
+            this.type = type;
+            this.value = value;
+        }
+
+        void apply(PersistentDataContainer pdc) {
+            pdc.set(key, type, value);
+        }
+    }
+
+    private abstract static class TileRestore {
+        private final Location location;
+        private final int x, y, z;
+        private final List<PdcEntry<?>> persistentData;
+
+        TileRestore(Location location, List<PdcEntry<?>> persistentData) {
+            this.location = location;
+            this.x = location.getBlockX();
+            this.y = location.getBlockY();
+            this.z = location.getBlockZ();
+            this.persistentData = persistentData;
+        }
+
+        void apply(World world) {
+            try {
+                BlockState state = world.getBlockAt(x, y, z).getState();
+                if (!applyTo(state)) {
+                    LOGGER.warning("[ArenaRegen] Block at " + location + " is not a " + getKind()
+                            + ", cannot restore " + getKind() + " state.");
+                    return;
+                }
+                if (!persistentData.isEmpty()) {
+                    PersistentDataContainer pdc = ((TileState) state).getPersistentDataContainer();
+                    for (PdcEntry<?> entry : persistentData) {
+                        entry.apply(pdc);
+                    }
+                }
+                state.update();
+            } catch (Exception e) {
+                LOGGER.warning("[ArenaRegen] Failed to restore " + getKind() + " at " + location + ": " + e.getMessage());
+            }
+        }
+
+        abstract String getKind();
+
+        abstract boolean applyTo(BlockState state);
+    }
+
+    private static final class BannerRestore extends TileRestore {
+        private final DyeColor baseColor;
+        private final List<Pattern> patterns;
+
+        BannerRestore(Location location, List<PdcEntry<?>> persistentData, DyeColor baseColor, List<Pattern> patterns) {
+            super(location, persistentData);
+            this.baseColor = baseColor;
+            this.patterns = patterns;
+        }
+
+        @Override
+        String getKind() {
+            return "banner";
+        }
+
+        @Override
+        boolean applyTo(BlockState state) {
+            if (!(state instanceof Banner banner)) {
+                return false;
+            }
+            if (baseColor != null) {
+                banner.setBaseColor(baseColor);
+            }
+            if (patterns != null) {
+                banner.setPatterns(patterns);
+            }
+            return true;
+        }
+    }
+
+    private static final class SignRestore extends TileRestore {
+        private final String[] lines;
+        private final DyeColor color;
+        private final boolean glowing;
+
+        SignRestore(Location location, List<PdcEntry<?>> persistentData, String[] lines, DyeColor color, boolean glowing) {
+            super(location, persistentData);
+            this.lines = lines;
+            this.color = color;
+            this.glowing = glowing;
+        }
+
+        @Override
+        String getKind() {
+            return "sign";
+        }
+
+        @Override
+        boolean applyTo(BlockState state) {
+            if (!(state instanceof Sign sign)) {
+                return false;
+            }
+            for (int i = 0; i < lines.length; i++) {
+                sign.setLine(i, lines[i]);
+            }
+            sign.setColor(color);
+            sign.setGlowingText(glowing);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.zitemaker.listeners;
+
+import com.zitemaker.ArenaRegen;
+import com.zitemaker.helpers.RegionData;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Bisected;
+import org.bukkit.block.data.type.Bed;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ArenaChangeListener implements Listener {
+
+    private static final BlockFace[] NEIGHBOURS = { BlockFace.UP, BlockFace.DOWN, BlockFace.NORTH, BlockFace.SOUTH,
+            BlockFace.EAST, BlockFace.WEST };
+    private static final int MAX_SUPPORTED_COLUMN = 32;
+
+    private final ArenaRegen plugin;
+    private volatile Map<String, List<RegionData>> regionsByWorld = Map.of();
+
+    public ArenaChangeListener(ArenaRegen plugin) {
+        this.plugin = plugin;
+        updateRegionIndex();
+    }
+
+    public void updateRegionIndex() {
+        Map<String, List<RegionData>> index = new HashMap<>();
+        for (RegionData region : plugin.getRegisteredRegions().values()) {
+            if (region.worldName != null) {
+                index.computeIfAbsent(region.worldName, world -> new ArrayList<>()).add(region);
+            }
+        }
+        regionsByWorld = index;
+    }
+
+    private void mark(Block block) {
+        World world = block.getWorld();
+        List<RegionData> regions = regionsByWorld.get(world.getName());
+        if (regions == null) {
+            return;
+        }
+        for (RegionData region : regions) {
+            if (region.contains(world, block.getX(), block.getY(), block.getZ())) {
+                region.markBlockModified(block);
+            }
+        }
+    }
+
+    private void mark(Collection<Block> blocks) {
+        if (blocks.isEmpty()) {
+            return;
+        }
+        World world = blocks.iterator().next().getWorld();
+        List<RegionData> regions = regionsByWorld.get(world.getName());
+        if (regions == null) {
+            return;
+        }
+        for (RegionData region : regions) {
+            List<Block> inside = new ArrayList<>();
+            for (Block block : blocks) {
+                if (region.contains(world, block.getX(), block.getY(), block.getZ())) {
+                    inside.add(block);
+                }
+            }
+            if (!inside.isEmpty()) {
+                region.markBlocksModified(inside);
+            }
+        }
+    }
+
+    private void markWithAffected(Block block) {
+        markWithAffected(List.of(block));
+    }
+
+    private void markWithAffected(Collection<Block> blocks) {
+        if (blocks.isEmpty() || !regionsByWorld.containsKey(blocks.iterator().next().getWorld().getName())) {
+            return;
+        }
+        Set<Block> affected = new LinkedHashSet<>(blocks);
+        for (Block block : blocks) {
+            addOtherHalf(affected, block);
+            for (BlockFace face : NEIGHBOURS) {
+                Block neighbour = block.getRelative(face);
+                if (affected.add(neighbour)) {
+                    addOtherHalf(affected, neighbour);
+                }
+            }
+            Block below = block;
+            Block above = block.getRelative(BlockFace.UP);
+            for (int i = 0; i < MAX_SUPPORTED_COLUMN && isSupportedBy(above, below); i++) {
+                if (affected.add(above)) {
+                    addOtherHalf(affected, above);
+                }
+                below = above;
+                above = above.getRelative(BlockFace.UP);
+            }
+        }
+        mark(affected);
+    }
+
+    private boolean isSupportedBy(Block block, Block support) {
+        if (block.isEmpty() || block.isLiquid()) {
+            return false;
+        }
+        return !block.getType().isSolid() || block.getType() == support.getType();
+    }
+
+    private void addOtherHalf(Set<Block> affected, Block block) {
+        BlockData data = block.getBlockData();
+        if (data instanceof Bed bed) {
+            BlockFace toOther = bed.getPart() == Bed.Part.FOOT ? bed.getFacing() : bed.getFacing().getOppositeFace();
+            affected.add(block.getRelative(toOther));
+        } else if (data instanceof Bisected bisected) {
+            affected.add(block.getRelative(bisected.getHalf() == Bisected.Half.BOTTOM ? BlockFace.UP : BlockFace.DOWN));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        markWithAffected(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (event instanceof BlockMultiPlaceEvent multiPlace) {
+            List<Block> blocks = new ArrayList<>();
+            for (BlockState state : multiPlace.getReplacedBlockStates()) {
+                blocks.add(state.getBlock());
+            }
+            mark(blocks);
+            return;
+        }
+        mark(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        List<Block> blocks = new ArrayList<>(event.blockList());
+        blocks.add(event.getBlock());
+        markWithAffected(blocks);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        markWithAffected(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        markPiston(event.getBlock(), event.getDirection(), event.getBlocks());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        markPiston(event.getBlock(), event.getDirection(), event.getBlocks());
+    }
+
+    private void markPiston(Block piston, BlockFace direction, List<Block> moved) {
+        List<Block> blocks = new ArrayList<>(moved.size() * 2 + 3);
+        blocks.add(piston);
+        blocks.add(piston.getRelative(direction));
+        blocks.add(piston.getRelative(direction.getOppositeFace()));
+        for (Block block : moved) {
+            blocks.add(block);
+            blocks.add(block.getRelative(direction));
+        }
+        markWithAffected(blocks);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        mark(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        markWithAffected(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockIgnite(BlockIgniteEvent event) {
+        mark(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        markWithAffected(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        mark(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        mark(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        mark(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        markWithAffected(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        markWithAffected(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        mark(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        markWithAffected(event.getBlock());
+    }
+}
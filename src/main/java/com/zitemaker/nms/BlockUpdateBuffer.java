@@ -0,0 +1,143 @@
+package com.zitemaker.nms;
+
+import java.util.Arrays;
+
+public class BlockUpdateBuffer {
+    private static final int COORD_OFFSET = 1 << 21;
+    private static final int SECTION_Y_OFFSET = 128;
+
+    private long[] positions;
+    private int[] stateIds;
+    private long[] scratchPositions;
+    private int[] scratchStateIds;
+    private final int[] counts = new int[256];
+    private int size;
+
+    public BlockUpdateBuffer(int capacity) {
+        this.positions = new long[Math.max(16, capacity)];
+        this.stateIds = new int[positions.length];
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((long) (((x >> 4) + COORD_OFFSET) & 0x3FFFFF) << 42)
+                | ((long) (((z >> 4) + COORD_OFFSET) & 0x3FFFFF) << 20)
+                | ((long) (((y >> 4) + SECTION_Y_OFFSET) & 0xFF) << 12)
+                | ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    public static int unpackX(long position) {
+        return ((int) (position >>> 42) - COORD_OFFSET) << 4 | (int) (position & 15);
+    }
+
+    public static int unpackY(long position) {
+        return ((int) ((position >>> 12) & 0xFF) - SECTION_Y_OFFSET) << 4 | (int) ((position >>> 8) & 15);
+    }
+
+    public static int unpackZ(long position) {
+        return ((int) ((position >>> 20) & 0x3FFFFF) - COORD_OFFSET) << 4 | (int) ((position >>> 4) & 15);
+    }
+
+    public void add(int x, int y, int z, int stateId) {
+        ensureCapacity(size + 1);
+        positions[size] = pack(x, y, z);
+        stateIds[size++] = stateId;
+    }
+
+    public void addAll(BlockUpdateBuffer other, int from, int count) {
+        ensureCapacity(size + count);
+        System.arraycopy(other.positions, from, positions, size, count);
+        System.arraycopy(other.stateIds, from, stateIds, size, count);
+        size += count;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > positions.length) {
+            int newCapacity = Math.max(capacity, positions.length * 2);
+            positions = Arrays.copyOf(positions, newCapacity);
+            stateIds = Arrays.copyOf(stateIds, newCapacity);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public long getPosition(int i) { return positions[i]; }
+    public int getX(int i) { return unpackX(positions[i]); }
+    public int getY(int i) { return unpackY(positions[i]); }
+    public int getZ(int i) { return unpackZ(positions[i]); }
+    public int getStateId(int i) { return stateIds[i]; }
+    public int getSectionX(int i) { return (int) (positions[i] >>> 42) - COORD_OFFSET; }
+    public int getSectionY(int i) { return (int) ((positions[i] >>> 12) & 0xFF) - SECTION_Y_OFFSET; }
+    public int getSectionZ(int i) { return (int) ((positions[i] >>> 20) & 0x3FFFFF) - COORD_OFFSET; }
+
+    public int sectionEnd(int start) {
+        long section = positions[start] >>> 12;
+        int end = start + 1;
+        while (end < size && positions[end] >>> 12 == section) {
+            end++;
+        }
+        return end;
+    }
+
+    public void sort() {
+        if (isSorted()) {
+            return;
+        }
+        if (scratchPositions == null || scratchPositions.length < size) {
+            scratchPositions = new long[positions.length];
+            scratchStateIds = new int[positions.length];
+        }
+
+        long[] fromPositions = positions, toPositions = scratchPositions;
+        int[] fromStates = stateIds, toStates = scratchStateIds;
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                counts[(int) (fromPositions[i] >>> shift) & 0xFF]++;
+            }
+            if (counts[(int) (fromPositions[0] >>> shift) & 0xFF] == size) {
+                continue;
+            }
+            int offset = 0;
+            for (int b = 0; b < 256; b++) {
+                int count = counts[b];
+                counts[b] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < size; i++) {
+                int target = counts[(int) (fromPositions[i] >>> shift) & 0xFF]++;
+                toPositions[target] = fromPositions[i];
+                toStates[target] = fromStates[i];
+            }
+            long[] swapPositions = fromPositions;
+            fromPositions = toPositions;
+            toPositions = swapPositions;
+            int[] swapStates = fromStates;
+            fromStates = toStates;
+            toStates = swapStates;
+        }
+
+        positions = fromPositions;
+        stateIds = fromStates;
+        scratchPositions = toPositions;
+        scratchStateIds = toStates;
+    }
+
+    private boolean isSorted() {
+        for (int i = 1; i < size; i++) {
+            if (Long.compareUnsigned(positions[i - 1], positions[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
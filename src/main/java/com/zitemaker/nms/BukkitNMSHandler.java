@@ -1,79 +1,72 @@
 package com.zitemaker.nms;
 
-import org.bukkit.Bukkit;
+import com.zitemaker.helpers.BlockStateRegistry;
 import org.bukkit.Chunk;
 import org.bukkit.World;
-import org.bukkit.block.Block;
-import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.block.data.BlockData;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 public class BukkitNMSHandler implements NMSHandler {
 
     @Override
-    public void setBlocks(World world, List<BlockUpdate> blockUpdates) {
-        for (BlockUpdate update : blockUpdates) {
-            Block block = world.getBlockAt(update.getX(), update.getY(), update.getZ());
-            block.setBlockData(update.getBlockData(), false);
-        }
+    public ResolvedPalette createPalette() {
+        return stateIds -> {
+        };
     }
 
     @Override
-    public void relightChunks(World world, List<Chunk> chunks, List<BlockUpdate> blockUpdates) {
-        if (chunks == null || chunks.isEmpty()) return;
-
-        Set<Chunk> uniqueChunks = new HashSet<>(chunks);
-        List<Chunk> chunkList = new ArrayList<>(uniqueChunks);
-        processChunks(world, chunkList, 0);
+    public void setBlocks(World world, BlockUpdateBuffer buffer, ResolvedPalette palette) {
+        buffer.sort();
+        setBlocks(world, buffer, 0);
     }
 
-    private void processChunks(World world, List<Chunk> chunks, int index) {
-        if (index >= chunks.size()) return;
-
-        JavaPlugin plugin = null;
-        try {
-            plugin = (JavaPlugin) Bukkit.getPluginManager().getPlugin("ArenaRegen");
-        } catch (Exception e) {
-            plugin = (JavaPlugin) Bukkit.getPluginManager().getPlugins()[0];
+    public void setBlocks(World world, BlockUpdateBuffer buffer, int from) {
+        Chunk chunk = null;
+        for (int i = from; i < buffer.size(); i++) {
+            BlockData blockData = BlockStateRegistry.get(buffer.getStateId(i));
+            if (blockData == null) {
+                continue;
+            }
+            int x = buffer.getX(i), y = buffer.getY(i), z = buffer.getZ(i);
+            if (chunk == null || chunk.getX() != x >> 4 || chunk.getZ() != z >> 4) {
+                chunk = world.getChunkAt(x >> 4, z >> 4);
+            }
+            chunk.getBlock(x & 15, y, z & 15).setBlockData(blockData, false);
         }
+    }
 
-        if (plugin == null) return;
+    @Override
+    public void setSections(World world, List<SectionUpdate> sectionUpdates, ResolvedPalette palette) {
+        BlockUpdateBuffer buffer = new BlockUpdateBuffer(sectionUpdates.size() * SectionUpdate.SECTION_BLOCKS);
+        for (SectionUpdate update : sectionUpdates) {
+            update.writeTo(buffer);
+        }
+        setBlocks(world, buffer, palette);
+    }
 
-        int batchSize = Math.min(3, chunks.size() - index);
-        for (int i = 0; i < batchSize; i++) {
-            Chunk chunk = chunks.get(index + i);
-            try {
+    @Override
+    public void syncBlockChanges(World world, SectionChangeSet changes) {
+        changes.drainPending((x, y, z) -> {
+        });
+    }
 
-                int chunkX = chunk.getX();
-                int chunkZ = chunk.getZ();
-                
+    @Override
+    public void resendChunks(World world, Collection<Long> chunkKeys) {
+    }
 
-                world.refreshChunk(chunkX, chunkZ);
+    @Override
+    public void relightChunks(World world, Collection<Long> chunkKeys) {
+    }
 
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    try {
-                        for (int dx = -1; dx <= 1; dx++) {
-                            for (int dz = -1; dz <= 1; dz++) {
-                                if (world.isChunkLoaded(chunkX + dx, chunkZ + dz)) {
-                                    world.refreshChunk(chunkX + dx, chunkZ + dz);
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                    }
-                }, 10L);
-                
-            } catch (Exception e) {
-                Bukkit.getLogger().warning("Failed delayed chunk refresh " + chunk.getX() + "," + chunk.getZ() + ": " + e.getMessage());
-            }
-        }
+    @Override
+    public boolean supportsChunkCapture() {
+        return false;
+    }
 
-        if (index + batchSize < chunks.size()) {
-            final JavaPlugin finalPlugin = plugin;
-            Bukkit.getScheduler().runTaskLater(finalPlugin, () -> processChunks(world, chunks, index + batchSize), 3L);
-        }
+    @Override
+    public CapturedChunk captureChunk(World world, int chunkX, int chunkZ, int minY, int maxY) {
+        return null;
     }
 }
@@ -0,0 +1,7 @@
+package com.zitemaker.nms;
+
+import com.zitemaker.helpers.BlockVolume;
+
+public interface CapturedChunk {
+    void copyTo(BlockVolume target);
+}
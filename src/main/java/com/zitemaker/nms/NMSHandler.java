@@ -1,13 +1,25 @@
 package com.zitemaker.nms;
 
-import org.bukkit.Chunk;
 import org.bukkit.World;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface NMSHandler {
-    void setBlocks(World world, List<BlockUpdate> blockUpdates);
+    ResolvedPalette createPalette();
 
-    void relightChunks(World world, List<Chunk> chunks, List<BlockUpdate> blockUpdates);
+    void setBlocks(World world, BlockUpdateBuffer buffer, ResolvedPalette palette);
+
+    void setSections(World world, List<SectionUpdate> sectionUpdates, ResolvedPalette palette);
+
+    void syncBlockChanges(World world, SectionChangeSet changes);
+
+    void resendChunks(World world, Collection<Long> chunkKeys);
+
+    void relightChunks(World world, Collection<Long> chunkKeys);
+
+    boolean supportsChunkCapture();
+
+    CapturedChunk captureChunk(World world, int chunkX, int chunkZ, int minY, int maxY);
 }
 
@@ -2,197 +2,446 @@ package com.zitemaker.nms;
 
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import com.zitemaker.helpers.BlockStateRegistry;
+import com.zitemaker.helpers.BlockVolume;
 import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
 import net.minecraft.world.level.lighting.LevelLightEngine;
-import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.lighting.LightEngine;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.levelgen.Heightmap;
 import org.bukkit.Bukkit;
-import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.craftbukkit.CraftWorld;
 import org.bukkit.craftbukkit.block.data.CraftBlockData;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.logging.Logger;
 
 public class NMSHandler_1_21 implements NMSHandler {
     private static final Logger LOGGER = Bukkit.getLogger();
     private final Plugin plugin;
+    private final Map<UUID, LightChanges> pendingLight = new HashMap<>();
+    private final NmsPalette sharedPalette = new NmsPalette();
 
     public NMSHandler_1_21(Plugin plugin) {
         this.plugin = plugin;
     }
 
     @Override
-    public void setBlocks(World world, List<BlockUpdate> blockUpdates) {
-        if (blockUpdates == null || blockUpdates.isEmpty())
+    public ResolvedPalette createPalette() {
+        return new NmsPalette();
+    }
+
+    private NmsPalette nmsPalette(ResolvedPalette palette) {
+        return palette instanceof NmsPalette nms ? nms : sharedPalette;
+    }
+
+    @Override
+    public void setBlocks(World world, BlockUpdateBuffer buffer, ResolvedPalette palette) {
+        if (buffer == null || buffer.isEmpty())
             return;
 
         if (!Bukkit.isPrimaryThread()) {
-            Bukkit.getScheduler().runTask(plugin, () -> setBlocks(world, blockUpdates));
+            BlockUpdateBuffer copy = new BlockUpdateBuffer(buffer.size());
+            copy.addAll(buffer, 0, buffer.size());
+            Bukkit.getScheduler().runTask(plugin, () -> setBlocks(world, copy, palette));
             return;
         }
 
-        CraftWorld craftWorld = (CraftWorld) world;
-        Long2ObjectMap<LevelChunk> chunkCache = new Long2ObjectOpenHashMap<>();
+        buffer.sort();
+        NmsPalette resolved = nmsPalette(palette);
+        BlockState[] states = resolved.getStates();
+        ServerLevel level = ((CraftWorld) world).getHandle();
+        LightChanges light = pendingLight.computeIfAbsent(world.getUID(), uid -> new LightChanges());
+        LevelChunk chunk = null;
+        int start = 0;
 
         try {
-            for (BlockUpdate update : blockUpdates) {
-                final int x = update.getX();
-                final int y = update.getY();
-                final int z = update.getZ();
-
-                final long chunkKey = ChunkPos.asLong(x >> 4, z >> 4);
-                final LevelChunk chunk = chunkCache.computeIfAbsent(chunkKey,
-                        key -> craftWorld.getHandle().getChunk(x >> 4, z >> 4));
+            while (start < buffer.size()) {
+                int end = buffer.sectionEnd(start);
+                int sectionX = buffer.getSectionX(start);
+                int sectionY = buffer.getSectionY(start);
+                int sectionZ = buffer.getSectionZ(start);
+                if (chunk == null || chunk.getPos().x != sectionX || chunk.getPos().z != sectionZ) {
+                    chunk = level.getChunk(sectionX, sectionZ);
+                }
+                int sectionIndex = chunk.getSectionIndexFromSectionY(sectionY);
+                if (sectionIndex < 0 || sectionIndex >= chunk.getSectionsCount()) {
+                    start = end;
+                    continue;
+                }
 
-                final LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+                LevelChunkSection section = chunk.getSection(sectionIndex);
+                boolean wasEmpty = section.hasOnlyAir();
+                LongArrayList lightPositions = null;
+                for (int i = start; i < end; i++) {
+                    int stateId = buffer.getStateId(i);
+                    BlockState state = stateId < states.length ? states[stateId] : null;
+                    if (state == null) {
+                        state = resolved.resolveMissing(stateId);
+                        states = resolved.getStates();
+                        if (state == null) {
+                            continue;
+                        }
+                    }
+                    int x = buffer.getX(i), y = buffer.getY(i), z = buffer.getZ(i);
+                    BlockState previous = section.setBlockState(x & 15, y & 15, z & 15, state);
+                    if (LightEngine.hasDifferentLightProperties(previous, state)) {
+                        if (chunk.getSkyLightSources() != null) {
+                            chunk.getSkyLightSources().update(chunk, x & 15, y, z & 15);
+                        }
+                        if (lightPositions == null) {
+                            lightPositions = new LongArrayList();
+                        }
+                        lightPositions.add(BlockPos.asLong(x, y, z));
+                    }
+                }
 
-                section.setBlockState(x & 15, y & 15, z & 15,
-                        ((CraftBlockData) update.getBlockData()).getState());
+                if (lightPositions != null) {
+                    light.addBlocks(chunk.getPos(), lightPositions);
+                }
+                if (wasEmpty != section.hasOnlyAir()) {
+                    light.addSection(sectionX, sectionY, sectionZ);
+                }
+                start = end;
             }
         } catch (Throwable t) {
             LOGGER.warning("NMS failed, falling back to Bukkit API: " + t.getMessage());
-            new BukkitNMSHandler().setBlocks(world, blockUpdates);
+            new BukkitNMSHandler().setBlocks(world, buffer, start);
         }
     }
 
     @Override
-    public void relightChunks(World world, List<Chunk> chunks, List<BlockUpdate> blockUpdates) {
-        if (chunks == null || chunks.isEmpty())
+    public void setSections(World world, List<SectionUpdate> sectionUpdates, ResolvedPalette palette) {
+        if (sectionUpdates == null || sectionUpdates.isEmpty())
             return;
 
         if (!Bukkit.isPrimaryThread()) {
-            Bukkit.getScheduler().runTask(plugin, () -> relightChunks(world, chunks, blockUpdates));
+            Bukkit.getScheduler().runTask(plugin, () -> setSections(world, sectionUpdates, palette));
             return;
         }
 
-        Set<ChunkPos> affectedChunks = new HashSet<>();
-        for (Chunk chunk : chunks) {
-            affectedChunks.add(new ChunkPos(chunk.getX(), chunk.getZ()));
+        NmsPalette resolved = nmsPalette(palette);
+
+        ServerLevel level = ((CraftWorld) world).getHandle();
+        Long2ObjectMap<LevelChunk> replacedChunks = new Long2ObjectOpenHashMap<>();
+        Map<BlockVolume, BlockState[]> resolvedPalettes = new IdentityHashMap<>();
+        BlockUpdateBuffer fallback = new BlockUpdateBuffer(SectionUpdate.SECTION_BLOCKS);
+        LightChanges light = pendingLight.computeIfAbsent(world.getUID(), uid -> new LightChanges());
+        Set<LevelChunk> lightSourceChunks = new HashSet<>();
+
+        for (SectionUpdate update : sectionUpdates) {
+            try {
+                LevelChunk chunk = level.getChunk(update.getSectionX(), update.getSectionZ());
+                BlockState[] states = resolvedPalettes.computeIfAbsent(update.getVolume(),
+                        volume -> resolved.forVolume(volume.getPaletteIds()));
+                if (replaceSection(chunk, update, states, light)) {
+                    replacedChunks.put(ChunkPos.asLong(update.getSectionX(), update.getSectionZ()), chunk);
+                    if (light.hasBlocks(chunk.getPos())) {
+                        lightSourceChunks.add(chunk);
+                    }
+                } else {
+                    update.writeTo(fallback);
+                }
+            } catch (Throwable t) {
+                LOGGER.warning("Section replacement failed at " + update.getSectionX() + ", " + update.getSectionY() + ", "
+                        + update.getSectionZ() + ", setting blocks individually: " + t.getMessage());
+                update.writeTo(fallback);
+            }
         }
 
-        List<ChunkPos> chunkList = new ArrayList<>(affectedChunks);
-        processChunksWithLighting(world, chunkList, 0);
-    }
+        for (LevelChunk chunk : replacedChunks.values()) {
+            Set<Heightmap.Types> types = EnumSet.noneOf(Heightmap.Types.class);
+            for (Map.Entry<Heightmap.Types, Heightmap> entry : chunk.getHeightmaps()) {
+                types.add(entry.getKey());
+            }
+            Heightmap.primeHeightmaps(chunk, types);
+            if (lightSourceChunks.contains(chunk) && chunk.getSkyLightSources() != null) {
+                chunk.initializeLightSources();
+            }
+            chunk.markUnsaved();
+        }
 
-    private void processChunksWithLighting(World world, List<ChunkPos> chunks, int index) {
-        if (index >= chunks.size())
-            return;
+        if (!fallback.isEmpty()) {
+            setBlocks(world, fallback, palette);
+        }
+    }
 
-        int batchSize = Math.min(3, chunks.size() - index);
+    private boolean replaceSection(LevelChunk chunk, SectionUpdate update, BlockState[] states, LightChanges light) {
+        int sectionIndex = chunk.getSectionIndexFromSectionY(update.getSectionY());
+        if (sectionIndex < 0 || sectionIndex >= chunk.getSectionsCount()) {
+            return false;
+        }
+        LevelChunkSection current = chunk.getSection(sectionIndex);
+        if (current.maybeHas(BlockState::hasBlockEntity)) {
+            return false;
+        }
 
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            try {
-                if (!Bukkit.isPrimaryThread()) {
-                    LOGGER.warning("Lighting operations attempted off main thread - rescheduling");
-                    Bukkit.getScheduler().runTask(plugin, () -> processChunksWithLighting(world, chunks, index));
-                    return;
+        BlockVolume volume = update.getVolume();
+        BlockVolume.SectionBox box = update.getBox();
+        PalettedContainer<BlockState> container = current.getStates().recreate();
+        LongArrayList lightPositions = new LongArrayList();
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                int index = volume.index(box.getMinX(), box.getMinY() + y, box.getMinZ() + z);
+                for (int x = 0; x < 16; x++, index++) {
+                    BlockState state = states[volume.getPaletteIndex(index)];
+                    if (state == null || state.hasBlockEntity()) {
+                        return false;
+                    }
+                    container.getAndSetUnchecked(x, y, z, state);
+                    if (LightEngine.hasDifferentLightProperties(current.getBlockState(x, y, z), state)) {
+                        lightPositions.add(BlockPos.asLong(box.getMinX() + x, box.getMinY() + y, box.getMinZ() + z));
+                    }
                 }
+            }
+        }
 
-                CraftWorld craftWorld = (CraftWorld) world;
-                net.minecraft.server.level.ServerLevel serverLevel = craftWorld.getHandle();
-                LevelLightEngine lightEngine = serverLevel.getLightEngine();
-
-                for (int i = 0; i < batchSize; i++) {
-                    ChunkPos chunkPos = chunks.get(index + i);
-                    try {
-                        relightChunk(lightEngine, chunkPos);
-                    } catch (Exception e) {
-                        LOGGER.warning(
-                                "Failed to relight chunk at " + chunkPos.x + ", " + chunkPos.z + ": " + e.getMessage());
-                        try {
-                            world.refreshChunk(chunkPos.x, chunkPos.z);
-                        } catch (Exception ignored) {
+        LevelChunkSection replacement = new LevelChunkSection(container, current.getBiomes());
+        chunk.getSections()[sectionIndex] = replacement;
+        light.addBlocks(chunk.getPos(), lightPositions);
+        if (current.hasOnlyAir() != replacement.hasOnlyAir()) {
+            light.addSection(update.getSectionX(), update.getSectionY(), update.getSectionZ());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean supportsChunkCapture() {
+        return true;
+    }
+
+    @Override
+    public CapturedChunk captureChunk(World world, int chunkX, int chunkZ, int minY, int maxY) {
+        LevelChunk chunk = ((CraftWorld) world).getHandle().getChunk(chunkX, chunkZ);
+        int fromIndex = Math.max(0, chunk.getSectionIndex(minY));
+        int toIndex = Math.min(chunk.getSectionsCount() - 1, chunk.getSectionIndex(maxY));
+        List<PalettedContainer<BlockState>> states = new ArrayList<>();
+        List<Integer> baseYs = new ArrayList<>();
+        for (int i = fromIndex; i <= toIndex; i++) {
+            states.add(chunk.getSection(i).getStates().copy());
+            baseYs.add(chunk.getSectionYFromSectionIndex(i) << 4);
+        }
+        return target -> copySections(states, baseYs, target);
+    }
+
+    private void copySections(List<PalettedContainer<BlockState>> states, List<Integer> baseYs, BlockVolume target) {
+        Map<BlockState, Integer> paletteIndices = new IdentityHashMap<>();
+        int minX = target.getMinX(), maxX = minX + target.getSizeX() - 1;
+        int minY = target.getMinY(), maxY = minY + target.getSizeY() - 1;
+        int minZ = target.getMinZ(), maxZ = minZ + target.getSizeZ() - 1;
+
+        for (int s = 0; s < states.size(); s++) {
+            PalettedContainer<BlockState> container = states.get(s);
+            int baseY = baseYs.get(s);
+            int y0 = Math.max(minY, baseY);
+            int y1 = Math.min(maxY, baseY + 15);
+            if (y1 < y0) {
+                continue;
+            }
+
+            BlockState first = container.get(0, 0, 0);
+            if (!container.maybeHas(state -> state != first)) {
+                int paletteIndex = paletteIndex(paletteIndices, target, first);
+                for (int y = y0; y <= y1; y++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        int index = target.index(minX, y, z);
+                        for (int x = minX; x <= maxX; x++, index++) {
+                            target.setPaletteIndex(index, paletteIndex);
                         }
                     }
                 }
+                continue;
+            }
 
-                /*
-                 try {
-                 processLightUpdates(lightEngine);
-                 } catch (Exception lightProcessException) {
-                 LOGGER.warning("Failed to process lighting updates for batch: " +
-                 lightProcessException.getMessage());
-                 }
-                 */
-
-                for (int i = 0; i < batchSize; i++) {
-                    ChunkPos chunkPos = chunks.get(index + i);
-                    try {
-                        world.refreshChunk(chunkPos.x, chunkPos.z);
-                    } catch (Exception ignored) {
+            for (int y = y0; y <= y1; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    int index = target.index(minX, y, z);
+                    for (int x = minX; x <= maxX; x++, index++) {
+                        BlockState state = container.get(x & 15, y & 15, z & 15);
+                        target.setPaletteIndex(index, paletteIndex(paletteIndices, target, state));
                     }
                 }
+            }
+        }
+    }
 
-                if (index + batchSize < chunks.size()) {
-                    Bukkit.getScheduler().runTaskLater(plugin,
-                            () -> processChunksWithLighting(world, chunks, index + batchSize),
-                            3L);
-                }
-            } catch (Throwable t) {
-                LOGGER.warning("Lighting engine failed, falling back to simple chunk refresh: " + t.getMessage());
-                for (int i = 0; i < batchSize; i++) {
-                    ChunkPos chunkPos = chunks.get(index + i);
-                    try {
-                        world.refreshChunk(chunkPos.x, chunkPos.z);
-                    } catch (Exception ignored) {
+    private int paletteIndex(Map<BlockState, Integer> paletteIndices, BlockVolume target, BlockState state) {
+        Integer paletteIndex = paletteIndices.get(state);
+        if (paletteIndex == null) {
+            paletteIndex = target.addStateToPalette(BlockStateRegistry.getId(CraftBlockData.fromData(state)));
+            paletteIndices.put(state, paletteIndex);
+        }
+        return paletteIndex;
+    }
+
+    @Override
+    public void syncBlockChanges(World world, SectionChangeSet changes) {
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, () -> syncBlockChanges(world, changes));
+            return;
+        }
+
+        ServerChunkCache chunkSource = ((CraftWorld) world).getHandle().getChunkSource();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        changes.drainPending((x, y, z) -> chunkSource.blockChanged(pos.set(x, y, z)));
+    }
+
+    @Override
+    public void resendChunks(World world, Collection<Long> chunkKeys) {
+        for (long chunkKey : chunkKeys) {
+            int chunkX = (int) (chunkKey >> 32);
+            int chunkZ = (int) chunkKey;
+            if (world.isChunkLoaded(chunkX, chunkZ)) {
+                world.refreshChunk(chunkX, chunkZ);
+            }
+        }
+    }
+
+    @Override
+    public void relightChunks(World world, Collection<Long> chunkKeys) {
+        if (chunkKeys == null || chunkKeys.isEmpty())
+            return;
+
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, () -> relightChunks(world, chunkKeys));
+            return;
+        }
+
+        LightChanges light = pendingLight.get(world.getUID());
+        if (light == null)
+            return;
+
+        ServerLevel level = ((CraftWorld) world).getHandle();
+        LevelLightEngine lightEngine = level.getLightEngine();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (long key : chunkKeys) {
+            int chunkX = (int) (key >> 32);
+            int chunkZ = (int) key;
+            long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+            LongArrayList sections = light.sections.remove(chunkKey);
+            LongArrayList positions = light.blocks.remove(chunkKey);
+            if ((sections == null && positions == null) || !world.isChunkLoaded(chunkX, chunkZ)) {
+                continue;
+            }
+            try {
+                if (sections != null) {
+                    LevelChunk levelChunk = level.getChunk(chunkX, chunkZ);
+                    for (long sectionKey : sections) {
+                        SectionPos sectionPos = SectionPos.of(sectionKey);
+                        int sectionIndex = levelChunk.getSectionIndexFromSectionY(sectionPos.y());
+                        lightEngine.updateSectionStatus(sectionPos, levelChunk.getSection(sectionIndex).hasOnlyAir());
                     }
                 }
 
-                if (index + batchSize < chunks.size()) {
-                    Bukkit.getScheduler().runTaskLater(plugin,
-                            () -> processChunksWithLighting(world, chunks, index + batchSize),
-                            3L);
+                if (positions != null) {
+                    for (long position : positions) {
+                        lightEngine.checkBlock(pos.set(position));
+                    }
                 }
+            } catch (Exception e) {
+                LOGGER.warning("Failed to queue light updates for chunk at " + chunkX + ", " + chunkZ
+                        + ", falling back to chunk refresh: " + e.getMessage());
+                world.refreshChunk(chunkX, chunkZ);
             }
-        });
-    }
+        }
 
-    private void relightChunk(LevelLightEngine lightEngine, ChunkPos chunkPos) {
-        try {
-            lightEngine.retainData(chunkPos, true);
-            lightEngine.setLightEnabled(chunkPos, true);
+        if (light.isEmpty()) {
+            pendingLight.remove(world.getUID());
+        }
+    }
 
-            int minSection = Math.max(lightEngine.getMinLightSection(), -4);
-            int maxSection = Math.min(lightEngine.getMaxLightSection(), 20);
+    private static class NmsPalette implements ResolvedPalette {
+        private volatile BlockState[] states = new BlockState[256];
+        private int generation = BlockStateRegistry.getGeneration();
 
-            int buildMinSection = Math.max(minSection, -1);
-            int buildMaxSection = Math.min(maxSection, 16);
+        BlockState[] getStates() {
+            if (generation != BlockStateRegistry.getGeneration()) {
+                synchronized (this) {
+                    states = new BlockState[256];
+                    generation = BlockStateRegistry.getGeneration();
+                }
+            }
+            return states;
+        }
 
-            for (int sectionIndex = buildMinSection; sectionIndex < buildMaxSection; sectionIndex++) {
-                SectionPos sectionPos = SectionPos.of(chunkPos, sectionIndex);
+        @Override
+        public synchronized void resolve(int[] stateIds) {
+            for (int p = 1; p < stateIds.length; p++) {
+                resolveMissing(stateIds[p]);
+            }
+        }
 
-                lightEngine.updateSectionStatus(sectionPos, false);
+        synchronized BlockState resolveMissing(int stateId) {
+            BlockState[] table = getStates();
+            if (stateId < table.length && table[stateId] != null) {
+                return table[stateId];
+            }
+            org.bukkit.block.data.BlockData blockData = BlockStateRegistry.get(stateId);
+            if (blockData == null) {
+                return null;
+            }
+            if (stateId >= table.length) {
+                table = Arrays.copyOf(table, Math.max(table.length * 2, stateId + 1));
+            }
+            BlockState state = ((CraftBlockData) blockData).getState();
+            table[stateId] = state;
+            states = table;
+            return state;
+        }
 
-                lightEngine.queueSectionData(LightLayer.BLOCK, sectionPos, null);
-                lightEngine.queueSectionData(LightLayer.SKY, sectionPos, null);
+        BlockState[] forVolume(int[] stateIds) {
+            BlockState[] volumeStates = new BlockState[stateIds.length];
+            for (int p = 1; p < stateIds.length; p++) {
+                BlockState[] table = getStates();
+                BlockState state = stateIds[p] < table.length ? table[stateIds[p]] : null;
+                volumeStates[p] = state != null ? state : resolveMissing(stateIds[p]);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to relight chunk: " + e.getMessage(), e);
+            return volumeStates;
         }
     }
 
-    /*
-     * private void processLightUpdates(LevelLightEngine lightEngine) {
-     * try {
-     * int maxUpdates = 100;
-     * int processed = 0;
-     * 
-     * while (lightEngine.hasLightWork() && processed < maxUpdates) {
-     * lightEngine.runLightUpdates();
-     * processed++;
-     * }
-     * } catch (Exception e) {
-     * throw new RuntimeException("Failed to process light updates: " +
-     * e.getMessage(), e);
-     * }
-     * }
-     */
-}
\ No newline at end of file
+    private static class LightChanges {
+        private final Long2ObjectMap<LongArrayList> blocks = new Long2ObjectOpenHashMap<>();
+        private final Long2ObjectMap<LongArrayList> sections = new Long2ObjectOpenHashMap<>();
+
+        void addBlocks(ChunkPos chunkPos, LongArrayList positions) {
+            if (!positions.isEmpty()) {
+                blocks.computeIfAbsent(chunkPos.toLong(), key -> new LongArrayList()).addAll(positions);
+            }
+        }
+
+        void addSection(int sectionX, int sectionY, int sectionZ) {
+            sections.computeIfAbsent(ChunkPos.asLong(sectionX, sectionZ), key -> new LongArrayList())
+                    .add(SectionPos.asLong(sectionX, sectionY, sectionZ));
+        }
+
+        boolean hasBlocks(ChunkPos chunkPos) {
+            return blocks.containsKey(chunkPos.toLong());
+        }
+
+        boolean isEmpty() {
+            return blocks.isEmpty() && sections.isEmpty();
+        }
+    }
+}
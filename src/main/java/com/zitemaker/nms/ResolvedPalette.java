@@ -0,0 +1,6 @@
+package com.zitemaker.nms;
+
+@FunctionalInterface
+public interface ResolvedPalette {
+    void resolve(int[] stateIds);
+}
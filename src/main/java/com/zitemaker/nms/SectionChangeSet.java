@@ -0,0 +1,95 @@
+package com.zitemaker.nms;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class SectionChangeSet {
+    private final int resendThreshold;
+    private final Map<Long, Integer> sectionCounts = new HashMap<>();
+    private final Set<Long> changedChunks = new LinkedHashSet<>();
+    private final Set<Long> resendChunks = new LinkedHashSet<>();
+    private long[] pending = new long[256];
+    private int pendingCount;
+
+    public SectionChangeSet(int resendThreshold) {
+        this.resendThreshold = resendThreshold;
+    }
+
+    @FunctionalInterface
+    public interface PositionConsumer {
+        void accept(int x, int y, int z);
+    }
+
+    public void addBlocks(BlockUpdateBuffer buffer) {
+        int start = 0;
+        while (start < buffer.size()) {
+            int end = buffer.sectionEnd(start);
+            addSectionBlocks(buffer, start, end);
+            start = end;
+        }
+    }
+
+    private void addSectionBlocks(BlockUpdateBuffer buffer, int start, int end) {
+        long chunkKey = chunkKey(buffer.getSectionX(start), buffer.getSectionZ(start));
+        changedChunks.add(chunkKey);
+        if (resendChunks.contains(chunkKey)) {
+            return;
+        }
+        int count = sectionCounts.merge(buffer.getPosition(start) >>> 12, end - start, Integer::sum);
+        if (count > resendThreshold) {
+            resendChunks.add(chunkKey);
+            return;
+        }
+        if (pendingCount + end - start > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingCount + end - start));
+        }
+        for (int i = start; i < end; i++) {
+            pending[pendingCount++] = buffer.getPosition(i);
+        }
+    }
+
+    public void addSection(int sectionX, int sectionY, int sectionZ) {
+        long chunkKey = chunkKey(sectionX, sectionZ);
+        changedChunks.add(chunkKey);
+        resendChunks.add(chunkKey);
+    }
+
+    public void drainPending(PositionConsumer consumer) {
+        long lastChunkKey = 0;
+        boolean skipChunk = false;
+        for (int i = 0; i < pendingCount; i++) {
+            long position = pending[i];
+            int x = BlockUpdateBuffer.unpackX(position);
+            int y = BlockUpdateBuffer.unpackY(position);
+            int z = BlockUpdateBuffer.unpackZ(position);
+            long chunkKey = chunkKey(x >> 4, z >> 4);
+            if (i == 0 || chunkKey != lastChunkKey) {
+                lastChunkKey = chunkKey;
+                skipChunk = resendChunks.contains(chunkKey);
+            }
+            if (!skipChunk) {
+                consumer.accept(x, y, z);
+            }
+        }
+        pendingCount = 0;
+    }
+
+    public boolean hasPending() {
+        return pendingCount > 0;
+    }
+
+    public Set<Long> getChangedChunks() {
+        return changedChunks;
+    }
+
+    public Set<Long> getResendChunks() {
+        return resendChunks;
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
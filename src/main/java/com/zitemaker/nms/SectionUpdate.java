@@ -0,0 +1,35 @@
+package com.zitemaker.nms;
+
+import com.zitemaker.helpers.BlockVolume;
+public class SectionUpdate {
+    public static final int SECTION_BLOCKS = 4096;
+
+    private final BlockVolume volume;
+    private final BlockVolume.SectionBox box;
+
+    public SectionUpdate(BlockVolume volume, BlockVolume.SectionBox box) {
+        this.volume = volume;
+        this.box = box;
+    }
+
+    public BlockVolume getVolume() { return volume; }
+    public BlockVolume.SectionBox getBox() { return box; }
+    public int getSectionX() { return box.getSectionX(); }
+    public int getSectionY() { return box.getSectionY(); }
+    public int getSectionZ() { return box.getSectionZ(); }
+
+    public void writeTo(BlockUpdateBuffer buffer) {
+        int[] stateIds = volume.getPaletteIds();
+        for (int y = box.getMinY(); y < box.getMinY() + box.getSizeY(); y++) {
+            for (int z = box.getMinZ(); z < box.getMinZ() + box.getSizeZ(); z++) {
+                int index = volume.index(box.getMinX(), y, z);
+                for (int x = box.getMinX(); x < box.getMinX() + box.getSizeX(); x++, index++) {
+                    int paletteIndex = volume.getPaletteIndex(index);
+                    if (paletteIndex != 0) {
+                        buffer.add(x, y, z, stateIds[paletteIndex]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -151,6 +151,12 @@ public class ArenaRegenExpansion extends PlaceholderExpansion {
                     return "Arena or Player Required";
                 case "totalarenas":
                     return String.valueOf(plugin.getRegisteredRegions().size());
+                case "queue":
+                    return String.valueOf(plugin.getRegenScheduler().getQueueDepth());
+                case "queuewait":
+                    return formatTime(plugin.getRegenScheduler().getLongestWaitMillis());
+                case "avgqueuewait":
+                    return formatTime(plugin.getRegenScheduler().getAverageWaitMillis());
                 default:
                     return null;
             }
@@ -202,6 +208,15 @@ public class ArenaRegenExpansion extends PlaceholderExpansion {
             case "totalarenas":
                 return String.valueOf(plugin.getRegisteredRegions().size());
 
+            case "queue":
+                return String.valueOf(plugin.getRegenScheduler().getQueueDepth());
+
+            case "queuewait":
+                return formatTime(plugin.getRegenScheduler().getLongestWaitMillis());
+
+            case "avgqueuewait":
+                return formatTime(plugin.getRegenScheduler().getAverageWaitMillis());
+
             default:
                 return null;
         }
@@ -0,0 +1,56 @@
+package com.zitemaker.regen;
+
+import com.zitemaker.helpers.BlockVolume;
+import com.zitemaker.nms.BlockUpdateBuffer;
+
+import java.util.BitSet;
+
+public class ModifiedRegenSource implements RegenSource {
+    private final BlockVolume volume;
+    private final BitSet positions;
+    private final int[] stateIds;
+    private int index;
+
+    public ModifiedRegenSource(BlockVolume volume, BitSet positions) {
+        this.volume = volume;
+        this.positions = positions;
+        this.stateIds = volume.getPaletteIds();
+        this.index = positions.nextSetBit(0);
+    }
+
+    public BitSet getPositions() {
+        return positions;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public int drainTo(BlockUpdateBuffer updates, int maxBlocks) {
+        int added = 0;
+        while (index >= 0 && index < volume.size() && added < maxBlocks) {
+            int paletteIndex = volume.getPaletteIndex(index);
+            if (paletteIndex != 0) {
+                updates.add(volume.getX(index), volume.getY(index), volume.getZ(index), stateIds[paletteIndex]);
+                added++;
+            }
+            index = positions.nextSetBit(index + 1);
+        }
+        return added;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return index < 0 || index >= volume.size();
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,76 @@
+package com.zitemaker.regen;
+
+public class RegenJob {
+    public static final int PRIORITY_SCHEDULED = 1;
+    public static final int PRIORITY_MANUAL = 2;
+    public static final int PRIORITY_OCCUPIED_BONUS = 2;
+
+    @FunctionalInterface
+    public interface Starter {
+        boolean start(RegenJob job);
+    }
+
+    @FunctionalInterface
+    public interface Step {
+        void run(RegenJob job, long deadline);
+    }
+
+    @FunctionalInterface
+    public interface AbortHandler {
+        void abort(RegenJob job, Throwable cause);
+    }
+
+    private final String arenaName;
+    private final Starter starter;
+    private final Step step;
+    private final AbortHandler abortHandler;
+    private final long submittedAt = System.nanoTime();
+    private int priority;
+    private long startedAt;
+    private boolean started;
+    private boolean finished;
+
+    public RegenJob(String arenaName, int priority, Starter starter, Step step, AbortHandler abortHandler) {
+        this.arenaName = arenaName;
+        this.priority = Math.max(1, priority);
+        this.starter = starter;
+        this.step = step;
+        this.abortHandler = abortHandler;
+    }
+
+    boolean start(long now) {
+        startedAt = now;
+        started = true;
+        if (!starter.start(this)) {
+            finished = true;
+        }
+        return !finished;
+    }
+
+    void run(long deadline) {
+        step.run(this, deadline);
+    }
+
+    public void finish() {
+        finished = true;
+    }
+
+    public void abort(Throwable cause) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        abortHandler.abort(this, cause);
+    }
+
+    public void addPriority(int bonus) {
+        priority = Math.max(1, priority + bonus);
+    }
+
+    public boolean isStarted() { return started; }
+    public boolean isFinished() { return finished; }
+    public String getArenaName() { return arenaName; }
+    public int getPriority() { return priority; }
+    public long getSubmittedAt() { return submittedAt; }
+    public long getStartedAt() { return startedAt; }
+}
@@ -0,0 +1,68 @@
+package com.zitemaker.regen;
+
+import com.zitemaker.helpers.BlockVolume;
+import com.zitemaker.nms.BlockUpdateBuffer;
+import com.zitemaker.nms.SectionChangeSet;
+import com.zitemaker.nms.SectionUpdate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class RegenPlan {
+    private final BlockVolume volume;
+    private final List<SectionUpdate> fullSections;
+    private final BlockUpdateBuffer partialBlocks;
+    private final Set<Long> chunkKeys;
+
+    private RegenPlan(BlockVolume volume, List<SectionUpdate> fullSections, BlockUpdateBuffer partialBlocks, Set<Long> chunkKeys) {
+        this.volume = volume;
+        this.fullSections = fullSections;
+        this.partialBlocks = partialBlocks;
+        this.chunkKeys = chunkKeys;
+    }
+
+    public static RegenPlan compile(BlockVolume volume) {
+        List<SectionUpdate> fullSections = new ArrayList<>();
+        BlockUpdateBuffer partialBlocks = new BlockUpdateBuffer(SectionUpdate.SECTION_BLOCKS);
+        Set<Long> chunkKeys = new LinkedHashSet<>();
+        for (BlockVolume.SectionBox box : volume.getSectionBoxes()) {
+            int blockCount = volume.countBlocks(box);
+            if (blockCount == 0) {
+                continue;
+            }
+            chunkKeys.add(SectionChangeSet.chunkKey(box.getSectionX(), box.getSectionZ()));
+            SectionUpdate section = new SectionUpdate(volume, box);
+            if (blockCount == SectionUpdate.SECTION_BLOCKS) {
+                fullSections.add(section);
+            } else {
+                section.writeTo(partialBlocks);
+            }
+        }
+        partialBlocks.sort();
+        return new RegenPlan(volume, Collections.unmodifiableList(fullSections), partialBlocks,
+                Collections.unmodifiableSet(chunkKeys));
+    }
+
+    public BlockVolume getVolume() {
+        return volume;
+    }
+
+    public List<SectionUpdate> getFullSections() {
+        return fullSections;
+    }
+
+    public BlockUpdateBuffer getPartialBlocks() {
+        return partialBlocks;
+    }
+
+    public Set<Long> getChunkKeys() {
+        return chunkKeys;
+    }
+
+    public int getBlockCount() {
+        return fullSections.size() * SectionUpdate.SECTION_BLOCKS + partialBlocks.size();
+    }
+}
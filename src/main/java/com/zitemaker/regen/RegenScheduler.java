@@ -0,0 +1,148 @@
+package com.zitemaker.regen;
+
+import com.zitemaker.ArenaRegen;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class RegenScheduler {
+    private static final double WAIT_ALPHA = 0.2;
+    private static final Comparator<RegenJob> ORDER = Comparator.comparingInt(RegenJob::getPriority).reversed()
+            .thenComparingLong(RegenJob::getSubmittedAt);
+
+    private final ArenaRegen plugin;
+    private final List<RegenJob> active = new ArrayList<>();
+    private final PriorityQueue<RegenJob> waiting = new PriorityQueue<>(ORDER);
+    private TickBudget tickBudget;
+    private BukkitTask task;
+    private volatile int queueDepth;
+    private volatile int activeCount;
+    private volatile long oldestSubmittedAt;
+    private volatile double averageWaitNanos;
+
+    public RegenScheduler(ArenaRegen plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean submit(RegenJob job) {
+        waiting.add(job);
+        if (task == null) {
+            tickBudget = new TickBudget(plugin.getTickBudgetMillis(), plugin.targetMspt);
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 0L, 1L);
+        }
+        admit(System.nanoTime());
+        return job.isStarted();
+    }
+
+    public TickBudget getTickBudget() {
+        return tickBudget;
+    }
+
+    private void admit(long now) {
+        int maxConcurrent = plugin.maxConcurrentRegens;
+        while (!waiting.isEmpty() && (maxConcurrent <= 0 || active.size() < maxConcurrent)) {
+            RegenJob job = waiting.poll();
+            long waited = now - job.getSubmittedAt();
+            averageWaitNanos = averageWaitNanos == 0 ? waited : averageWaitNanos + WAIT_ALPHA * (waited - averageWaitNanos);
+            try {
+                if (!job.start(now)) {
+                    continue;
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("[ArenaRegen] Starting regeneration of '" + job.getArenaName() + "' failed: " + e.getMessage());
+                job.abort(e);
+                continue;
+            }
+            active.add(job);
+        }
+        updateStats();
+    }
+
+    private void updateStats() {
+        queueDepth = waiting.size();
+        activeCount = active.size();
+        long oldest = 0;
+        for (RegenJob job : waiting) {
+            if (oldest == 0 || job.getSubmittedAt() < oldest) {
+                oldest = job.getSubmittedAt();
+            }
+        }
+        oldestSubmittedAt = oldest;
+    }
+
+    private void tick() {
+        if (active.isEmpty() && waiting.isEmpty()) {
+            task.cancel();
+            task = null;
+            updateStats();
+            return;
+        }
+
+        long tickStart = System.nanoTime();
+        long deadline = tickStart + tickBudget.startTick(tickStart);
+        active.sort(ORDER);
+        int remainingWeight = 0;
+        for (RegenJob job : active) {
+            remainingWeight += job.getPriority();
+        }
+
+        for (RegenJob job : new ArrayList<>(active)) {
+            long now = System.nanoTime();
+            long share = Math.max(0, (deadline - now) * job.getPriority() / remainingWeight);
+            remainingWeight -= job.getPriority();
+            try {
+                job.run(now + share);
+            } catch (Exception e) {
+                plugin.getLogger().warning("[ArenaRegen] Regeneration step for '" + job.getArenaName() + "' failed: " + e.getMessage());
+                job.abort(e);
+            }
+            if (job.isFinished()) {
+                active.remove(job);
+            }
+        }
+
+        tickBudget.endTick(System.nanoTime() - tickStart);
+        admit(System.nanoTime());
+    }
+
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        List<RegenJob> pending = new ArrayList<>(active);
+        pending.addAll(waiting);
+        active.clear();
+        waiting.clear();
+        IllegalStateException cause = new IllegalStateException("Plugin is shutting down");
+        for (RegenJob job : pending) {
+            try {
+                job.abort(cause);
+            } catch (Exception e) {
+                plugin.getLogger().warning("[ArenaRegen] Aborting regeneration of '" + job.getArenaName() + "' failed: " + e.getMessage());
+            }
+        }
+        updateStats();
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public long getLongestWaitMillis() {
+        long oldest = oldestSubmittedAt;
+        return oldest == 0 ? 0 : (System.nanoTime() - oldest) / 1_000_000L;
+    }
+
+    public long getAverageWaitMillis() {
+        return (long) (averageWaitNanos / 1_000_000L);
+    }
+}
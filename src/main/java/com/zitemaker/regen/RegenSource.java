@@ -0,0 +1,27 @@
+package com.zitemaker.regen;
+
+import com.zitemaker.nms.BlockUpdateBuffer;
+import com.zitemaker.nms.SectionUpdate;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RegenSource {
+    void start();
+
+    int drainTo(BlockUpdateBuffer updates, int maxBlocks);
+
+    default int drainSectionsTo(List<SectionUpdate> sections, int maxSections) {
+        return 0;
+    }
+
+    default Collection<Long> getChunkKeys() {
+        return null;
+    }
+
+    boolean isFinished();
+
+    Throwable getFailure();
+
+    void close();
+}
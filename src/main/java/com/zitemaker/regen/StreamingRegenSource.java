@@ -0,0 +1,160 @@
+package com.zitemaker.regen;
+
+import com.zitemaker.helpers.BlockStateRegistry;
+import com.zitemaker.helpers.BlockVolume;
+import com.zitemaker.helpers.DatcContainer;
+import com.zitemaker.helpers.RegionData;
+import com.zitemaker.nms.BlockUpdateBuffer;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class StreamingRegenSource implements RegenSource {
+    private static final int BATCH_SIZE = 4096;
+    private static final int QUEUE_CAPACITY = 8;
+
+    private final Plugin plugin;
+    private final RegionData regionData;
+    private final File datcFile;
+    private final BlockingQueue<BlockUpdateBuffer> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<BlockUpdateBuffer> free = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 2);
+    private final BitSet retainedIds = new BitSet();
+    private volatile boolean producerDone = false;
+    private volatile boolean closed = false;
+    private volatile Throwable failure;
+    private BlockUpdateBuffer current;
+    private int currentIndex;
+
+    public StreamingRegenSource(Plugin plugin, RegionData regionData) {
+        this.plugin = plugin;
+        this.regionData = regionData;
+        this.datcFile = regionData.getDatcFile();
+        for (int i = 0; i < QUEUE_CAPACITY + 2; i++) {
+            free.add(new BlockUpdateBuffer(BATCH_SIZE));
+        }
+    }
+
+    @Override
+    public void start() {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try (DatcContainer.Reader reader = new DatcContainer.Reader(datcFile)) {
+                BlockUpdateBuffer batch = take();
+                for (DatcContainer.Entry entry : reader.getEntries(DatcContainer.KIND_SECTION)) {
+                    if (closed || batch == null) {
+                        return;
+                    }
+                    BlockVolume section = regionData.readSection(reader, entry);
+                    int[] stateIds = section.getPaletteIds();
+                    retain(stateIds);
+                    for (int i = 0; i < section.size(); i++) {
+                        int paletteIndex = section.getPaletteIndex(i);
+                        if (paletteIndex == 0) {
+                            continue;
+                        }
+                        batch.add(section.getX(i), section.getY(i), section.getZ(i), stateIds[paletteIndex]);
+                        if (batch.size() >= BATCH_SIZE) {
+                            put(batch);
+                            batch = take();
+                            if (batch == null) {
+                                return;
+                            }
+                        }
+                    }
+                }
+                if (batch != null && !batch.isEmpty()) {
+                    put(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = e;
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                producerDone = true;
+            }
+        });
+    }
+
+    private void retain(int[] stateIds) {
+        synchronized (retainedIds) {
+            if (closed) {
+                return;
+            }
+            for (int p = 1; p < stateIds.length; p++) {
+                if (!retainedIds.get(stateIds[p])) {
+                    retainedIds.set(stateIds[p]);
+                    BlockStateRegistry.retain(stateIds[p]);
+                }
+            }
+        }
+    }
+
+    private BlockUpdateBuffer take() throws InterruptedException {
+        while (!closed) {
+            BlockUpdateBuffer buffer = free.poll(100, TimeUnit.MILLISECONDS);
+            if (buffer != null) {
+                buffer.clear();
+                return buffer;
+            }
+        }
+        return null;
+    }
+
+    private void put(BlockUpdateBuffer batch) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(BlockUpdateBuffer updates, int maxBlocks) {
+        int added = 0;
+        while (added < maxBlocks) {
+            if (current == null || currentIndex >= current.size()) {
+                if (current != null) {
+                    free.offer(current);
+                }
+                current = queue.poll();
+                currentIndex = 0;
+                if (current == null) {
+                    break;
+                }
+            }
+            int count = Math.min(maxBlocks - added, current.size() - currentIndex);
+            updates.addAll(current, currentIndex, count);
+            currentIndex += count;
+            added += count;
+        }
+        return added;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return producerDone && queue.isEmpty() && (current == null || currentIndex >= current.size());
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+        current = null;
+        synchronized (retainedIds) {
+            for (int id = retainedIds.nextSetBit(0); id >= 0; id = retainedIds.nextSetBit(id + 1)) {
+                BlockStateRegistry.release(id);
+            }
+            retainedIds.clear();
+        }
+    }
+}
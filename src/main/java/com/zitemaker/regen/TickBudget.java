@@ -0,0 +1,98 @@
+package com.zitemaker.regen;
+
+import org.bukkit.Bukkit;
+
+import java.lang.reflect.Method;
+
+public class TickBudget {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long MIN_BUDGET_NANOS = NANOS_PER_MILLI;
+    private static final long LAG_INTERVAL_NANOS = 55 * NANOS_PER_MILLI;
+    private static final double INITIAL_NANOS_PER_BLOCK = 2_000.0;
+    private static final double INITIAL_NANOS_PER_SECTION = 250_000.0;
+    private static final double ALPHA = 0.3;
+    private static final Method AVERAGE_TICK_TIME = findAverageTickTime();
+
+    private final long maxBudgetNanos;
+    private final long targetTickNanos;
+    private double nanosPerBlock = INITIAL_NANOS_PER_BLOCK;
+    private double nanosPerSection = INITIAL_NANOS_PER_SECTION;
+    private double spentNanos;
+    private double intervalNanos;
+    private long lastTickStart;
+
+    public TickBudget(double maxBudgetMillis, double targetMspt) {
+        this.maxBudgetNanos = Math.max(MIN_BUDGET_NANOS, (long) (maxBudgetMillis * NANOS_PER_MILLI));
+        this.targetTickNanos = (long) (targetMspt * NANOS_PER_MILLI);
+    }
+
+    private static Method findAverageTickTime() {
+        try {
+            return Bukkit.class.getMethod("getAverageTickTime");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public long startTick(long now) {
+        if (lastTickStart != 0) {
+            intervalNanos = intervalNanos == 0 ? now - lastTickStart : intervalNanos + ALPHA * (now - lastTickStart - intervalNanos);
+        }
+        lastTickStart = now;
+
+        long mspt = getServerTickNanos();
+        if (mspt <= 0) {
+            return maxBudgetNanos;
+        }
+        long budget = (long) spentNanos + targetTickNanos - mspt;
+        return Math.max(MIN_BUDGET_NANOS, Math.min(maxBudgetNanos, budget));
+    }
+
+    public void endTick(long spent) {
+        spentNanos += ALPHA * (spent - spentNanos);
+    }
+
+    private long getServerTickNanos() {
+        if (AVERAGE_TICK_TIME != null) {
+            try {
+                return (long) ((double) AVERAGE_TICK_TIME.invoke(null) * NANOS_PER_MILLI);
+            } catch (Exception ignored) {
+            }
+        }
+        return intervalNanos > LAG_INTERVAL_NANOS ? (long) intervalNanos : 0;
+    }
+
+    public int estimateBlocks(long remainingNanos) {
+        if (remainingNanos <= 0) {
+            return 0;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingNanos / nanosPerBlock));
+    }
+
+    public void record(int blocks, long elapsedNanos) {
+        if (blocks <= 0) {
+            return;
+        }
+        nanosPerBlock += ALPHA * ((double) elapsedNanos / blocks - nanosPerBlock);
+        nanosPerBlock = Math.max(1.0, nanosPerBlock);
+    }
+
+    public int estimateSections(long remainingNanos) {
+        if (remainingNanos <= 0) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, remainingNanos / nanosPerSection);
+    }
+
+    public void recordSections(int sections, long elapsedNanos) {
+        if (sections <= 0) {
+            return;
+        }
+        nanosPerSection += ALPHA * ((double) elapsedNanos / sections - nanosPerSection);
+        nanosPerSection = Math.max(1.0, nanosPerSection);
+    }
+
+    public double getNanosPerBlock() {
+        return nanosPerBlock;
+    }
+}
@@ -0,0 +1,58 @@
+package com.zitemaker.regen;
+
+import com.zitemaker.nms.BlockUpdateBuffer;
+import com.zitemaker.nms.SectionUpdate;
+
+import java.util.Collection;
+import java.util.List;
+
+public class VolumeRegenSource implements RegenSource {
+    private final RegenPlan plan;
+    private int nextFullSection;
+    private int nextPartialBlock;
+
+    public VolumeRegenSource(RegenPlan plan) {
+        this.plan = plan;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public int drainSectionsTo(List<SectionUpdate> sections, int maxSections) {
+        List<SectionUpdate> fullSections = plan.getFullSections();
+        int count = Math.max(0, Math.min(maxSections, fullSections.size() - nextFullSection));
+        sections.addAll(fullSections.subList(nextFullSection, nextFullSection + count));
+        nextFullSection += count;
+        return count;
+    }
+
+    @Override
+    public int drainTo(BlockUpdateBuffer updates, int maxBlocks) {
+        BlockUpdateBuffer partialBlocks = plan.getPartialBlocks();
+        int count = Math.max(0, Math.min(maxBlocks, partialBlocks.size() - nextPartialBlock));
+        updates.addAll(partialBlocks, nextPartialBlock, count);
+        nextPartialBlock += count;
+        return count;
+    }
+
+    @Override
+    public Collection<Long> getChunkKeys() {
+        return plan.getChunkKeys();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return nextFullSection >= plan.getFullSections().size() && nextPartialBlock >= plan.getPartialBlocks().size();
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+}